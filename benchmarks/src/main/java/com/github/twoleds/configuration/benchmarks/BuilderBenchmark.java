@@ -0,0 +1,107 @@
+package com.github.twoleds.configuration.benchmarks;
+
+import com.github.twoleds.configuration.Configuration;
+import com.github.twoleds.configuration.ConfigurationBuilder;
+import com.github.twoleds.configuration.ConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * It measures output of the builder to a writer and to a stream, both of
+ * them discard the output, so only the builder is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BuilderBenchmark {
+
+    @Param({"SMALL", "WIDE", "HUGE"})
+    public ConfigurationGenerator.Shape shape;
+
+    private Configuration configuration;
+
+    @Setup
+    public void setup() throws ConfigurationException {
+        this.configuration = Configuration.parse(ConfigurationGenerator.generate(this.shape));
+    }
+
+    @Benchmark
+    public void writeValues() throws IOException {
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(new NullWriter())) {
+            for (int i = 0; i < 1000; i++) {
+                builder.startSection("node", i);
+                builder.writeValue("host", "192.168.1.10");
+                builder.writeValue("port", 9200 + i);
+                builder.writeValue("description", "A node with \"quotes\"\nand new lines");
+                builder.closeSection();
+            }
+        }
+    }
+
+    @Benchmark
+    public void writeToWriter() throws IOException {
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(new NullWriter())) {
+            this.configuration.writeTo(builder);
+        }
+    }
+
+    @Benchmark
+    public void writeToStream() throws IOException {
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(new NullOutputStream())) {
+            this.configuration.writeTo(builder);
+        }
+    }
+
+    @Benchmark
+    public void writeToCompact() throws IOException {
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(new NullOutputStream(), ConfigurationBuilder.Style.COMPACT)) {
+            this.configuration.writeTo(builder);
+        }
+    }
+
+    private static class NullWriter extends Writer {
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    private static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) {
+        }
+
+    }
+
+}
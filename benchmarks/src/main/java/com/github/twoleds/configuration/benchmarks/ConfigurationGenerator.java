@@ -0,0 +1,152 @@
+package com.github.twoleds.configuration.benchmarks;
+
+import java.util.Random;
+
+/**
+ * A generator of synthetic configurations. The output depends only on the
+ * shape and the seed, so every run of the benchmarks parses the same input.
+ */
+public class ConfigurationGenerator {
+
+    public static final long SEED = 0x2015L;
+
+    /**
+     * A shape of a generated configuration.
+     */
+    public enum Shape {
+
+        /**
+         * A few sections with a few values, like a typical application
+         * configuration.
+         */
+        SMALL,
+
+        /**
+         * Ten thousand values in a single section.
+         */
+        WIDE,
+
+        /**
+         * Two hundred nested sections with a few values on every level.
+         */
+        DEEP,
+
+        /**
+         * Two thousand tenant sections with nested nodes, about ninety
+         * thousand entries in total.
+         */
+        HUGE
+
+    }
+
+    private final Random random;
+    private final StringBuilder output;
+
+    private ConfigurationGenerator(long seed) {
+        this.random = new Random(seed);
+        this.output = new StringBuilder();
+    }
+
+    public static String generate(Shape shape) {
+        return ConfigurationGenerator.generate(shape, SEED);
+    }
+
+    public static String generate(Shape shape, long seed) {
+        ConfigurationGenerator generator = new ConfigurationGenerator(seed);
+        switch (shape) {
+            case SMALL:
+                generator.tenants(3, 3, 0);
+                break;
+            case WIDE:
+                generator.comment(0, "A wide configuration");
+                generator.startSection(0, "values", "wide");
+                for (int i = 0; i < 10000; i++) {
+                    generator.value(1, "value_" + i, generator.randomValue());
+                }
+                generator.closeSection(0);
+                break;
+            case DEEP:
+                for (int i = 0; i < 200; i++) {
+                    generator.startSection(i, "level", Integer.toString(i));
+                    generator.value(i + 1, "name", "level-" + i);
+                    generator.value(i + 1, "port", Integer.toString(1024 + i));
+                }
+                for (int i = 199; i >= 0; i--) {
+                    generator.closeSection(i);
+                }
+                break;
+            case HUGE:
+                generator.tenants(2000, 10, 0);
+                break;
+        }
+        return generator.output.toString();
+    }
+
+    private void tenants(int tenants, int nodes, int level) {
+        for (int i = 0; i < tenants; i++) {
+            this.comment(level, "Tenant number " + i);
+            this.startSection(level, "tenant", "tenant-" + i);
+            this.value(level + 1, "name", "\"Tenant " + i + " \\\"" + this.randomWord() + "\\\"\"");
+            this.value(level + 1, "enabled", this.random.nextBoolean() ? "on" : "off");
+            this.value(level + 1, "timeout", Long.toString(this.random.nextInt(60000)));
+            this.value(level + 1, "ratio", Double.toString(this.random.nextDouble()));
+            for (int j = 0; j < nodes; j++) {
+                this.startSection(level + 1, "node", "node-" + j);
+                this.value(level + 2, "host", "10." + (i % 256) + "." + j + "." + this.random.nextInt(256));
+                this.value(level + 2, "port", Integer.toString(9200 + j));
+                this.value(level + 2, "weight", Integer.toString(this.random.nextInt(100)));
+                this.closeSection(level + 1);
+            }
+            this.closeSection(level);
+            this.output.append('\n');
+        }
+    }
+
+    private String randomValue() {
+        switch (this.random.nextInt(4)) {
+            case 0:
+                return Integer.toString(this.random.nextInt());
+            case 1:
+                return this.random.nextBoolean() ? "on" : "off";
+            case 2:
+                return this.randomWord();
+            default:
+                return "\"" + this.randomWord() + " " + this.randomWord() + "\\n" + this.randomWord() + "\"";
+        }
+    }
+
+    private String randomWord() {
+        char[] word = new char[3 + this.random.nextInt(10)];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = (char)('a' + this.random.nextInt(26));
+        }
+        return new String(word);
+    }
+
+    private void comment(int level, String comment) {
+        this.indent(level);
+        this.output.append("# ").append(comment).append('\n');
+    }
+
+    private void value(int level, String name, String value) {
+        this.indent(level);
+        this.output.append(name).append(' ').append(value).append(";\n");
+    }
+
+    private void startSection(int level, String name, String value) {
+        this.indent(level);
+        this.output.append(name).append(' ').append(value).append(" {\n");
+    }
+
+    private void closeSection(int level) {
+        this.indent(level);
+        this.output.append("}\n");
+    }
+
+    private void indent(int level) {
+        for (int i = 0; i < level; i++) {
+            this.output.append('\t');
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.github.twoleds.configuration.benchmarks;
+
+import com.github.twoleds.configuration.Configuration;
+import com.github.twoleds.configuration.ConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * It measures typed getters of the small generated configuration.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetterBenchmark {
+
+    private Configuration configuration;
+
+    @Setup
+    public void setup() throws ConfigurationException {
+        this.configuration = Configuration.parse(ConfigurationGenerator.generate(ConfigurationGenerator.Shape.SMALL));
+    }
+
+    @Benchmark
+    public String getString() {
+        return this.configuration.getString("tenant:tenant-2/name");
+    }
+
+    @Benchmark
+    public Boolean getBoolean() {
+        return this.configuration.getBoolean("tenant:tenant-2/enabled");
+    }
+
+    @Benchmark
+    public Integer getInteger() {
+        return this.configuration.getInteger("tenant:tenant-2/node:node-2/port");
+    }
+
+    @Benchmark
+    public Long getLong() {
+        return this.configuration.getLong("tenant:tenant-2/timeout");
+    }
+
+    @Benchmark
+    public Double getDouble() {
+        return this.configuration.getDouble("tenant:tenant-2/ratio");
+    }
+
+    @Benchmark
+    public Integer getIntegerDefault() {
+        return this.configuration.getInteger("tenant:tenant-9/node/port", 9200);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.github.twoleds.configuration.benchmarks;
+
+import com.github.twoleds.configuration.Configuration;
+import com.github.twoleds.configuration.ConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * It measures parsing of generated configurations of all shapes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParseBenchmark {
+
+    @Param({"SMALL", "WIDE", "DEEP", "HUGE"})
+    public ConfigurationGenerator.Shape shape;
+
+    private String input;
+
+    @Setup
+    public void setup() {
+        this.input = ConfigurationGenerator.generate(this.shape);
+    }
+
+    @Benchmark
+    public Configuration parse() throws ConfigurationException {
+        return Configuration.parse(this.input);
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.github.twoleds.configuration.benchmarks;
+
+import com.github.twoleds.configuration.Configuration;
+import com.github.twoleds.configuration.ConfigurationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * It measures queries of the huge generated configuration, with and without
+ * conditions on values of sections.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    private Configuration configuration;
+
+    @Setup
+    public void setup() throws ConfigurationException {
+        this.configuration = Configuration.parse(ConfigurationGenerator.generate(ConfigurationGenerator.Shape.HUGE));
+    }
+
+    @Benchmark
+    public Configuration queryFirst() {
+        return this.configuration.query("tenant/node/host");
+    }
+
+    @Benchmark
+    public Configuration queryCondition() {
+        return this.configuration.query("tenant:tenant-1000/node:node-5/host");
+    }
+
+    @Benchmark
+    public Configuration queryMissing() {
+        return this.configuration.query("tenant:tenant-1000/node:node-99/host");
+    }
+
+    @Benchmark
+    public List<Configuration> queryAll() {
+        return this.configuration.queryAll("tenant/node/port");
+    }
+
+    @Benchmark
+    public List<Configuration> queryAllCondition() {
+        return this.configuration.queryAll("tenant/node:node-5/port");
+    }
+
+}
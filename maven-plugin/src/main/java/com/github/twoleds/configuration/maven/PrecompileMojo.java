@@ -0,0 +1,124 @@
+package com.github.twoleds.configuration.maven;
+
+import com.github.twoleds.configuration.Configuration;
+import com.github.twoleds.configuration.ConfigurationException;
+import com.github.twoleds.configuration.ConfigurationParser;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * It validates configuration files in the output directory and it writes
+ * the binary form of every file next to the file with the extension
+ * <code>.bin</code>. The binary form contains a hash of the file and it's
+ * preferred by {@link Configuration#parseResource(String)} while the file
+ * doesn't change, so applications don't parse the text form at startup.
+ * Files are parsed like class path resources, so includes are not allowed.
+ * Invalid configuration files fail the build.
+ */
+@Mojo(name = "precompile", defaultPhase = LifecyclePhase.PROCESS_RESOURCES, threadSafe = true)
+public class PrecompileMojo extends AbstractMojo {
+
+    /**
+     * A directory with configuration files, usually the directory where
+     * resources are copied to.
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File directory;
+
+    /**
+     * A glob pattern of configuration files relative to the directory.
+     */
+    @Parameter(defaultValue = "**.conf", required = true)
+    private String includes;
+
+    /**
+     * It skips the precompilation.
+     */
+    @Parameter(property = "twoleds-configuration.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+
+        if (this.skip) {
+            this.getLog().info("Precompilation of configuration files is skipped.");
+            return;
+        }
+
+        Path root = this.directory.toPath();
+        if (!Files.isDirectory(root)) {
+            this.getLog().info(String.format("A directory \"%s\" doesn't exist, nothing to precompile.", root));
+            return;
+        }
+
+        List<Path> files;
+        PathMatcher matcher = root.getFileSystem().getPathMatcher("glob:" + this.includes);
+        try (Stream<Path> stream = Files.walk(root)) {
+            files = stream
+                    .filter(Files::isRegularFile)
+                    .filter(file -> matcher.matches(root.relativize(file)))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new MojoExecutionException("An I/O error occurred.", e);
+        }
+
+        List<String> errors = new ArrayList<>();
+        for (Path file : files) {
+            byte[] source;
+            try {
+                source = Files.readAllBytes(file);
+            } catch (IOException e) {
+                throw new MojoExecutionException(String.format("A file \"%s\" cannot be read.", file), e);
+            }
+            // the file is parsed from the hashed bytes, so the binary form
+            // always matches its hash
+            Configuration configuration;
+            try (ConfigurationParser parser = new ConfigurationParser(
+                    new InputStreamReader(new ByteArrayInputStream(source), StandardCharsets.UTF_8)
+            )) {
+                configuration = parser.parse();
+            } catch (ConfigurationException e) {
+                String error = String.format("%s: %s", root.relativize(file), e.getMessage());
+                this.getLog().error(error);
+                errors.add(error);
+                continue;
+            }
+            Path output = file.resolveSibling(file.getFileName() + ".bin");
+            try (OutputStream out = Files.newOutputStream(output)) {
+                configuration.writeBinary(out, source);
+            } catch (IOException e) {
+                throw new MojoExecutionException(String.format("A file \"%s\" cannot be written.", output), e);
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new MojoFailureException(
+                    String.format("%d of %d configuration files are not valid:%n%s",
+                            errors.size(), files.size(), String.join(System.lineSeparator(), errors))
+            );
+        }
+
+        this.getLog().info(String.format("Precompiled %d configuration files.", files.size()));
+
+    }
+
+}
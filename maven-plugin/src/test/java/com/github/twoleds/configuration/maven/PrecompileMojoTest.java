@@ -0,0 +1,108 @@
+package com.github.twoleds.configuration.maven;
+
+import com.github.twoleds.configuration.Configuration;
+import org.apache.maven.plugin.MojoFailureException;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class PrecompileMojoTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("test.");
+        Files.createDirectories(this.directory.resolve("nested"));
+        this.createTestFile("app.conf", "database testdb {\n\tport 9200;\n}\n");
+        this.createTestFile("nested/node.conf", "host 192.168.1.10;\n");
+        this.createTestFile("notes.txt", "not a configuration {\n");
+    }
+
+    private void createTestFile(String name, String content) throws Exception {
+        Files.write(this.directory.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static PrecompileMojo createMojo(File directory, boolean skip) throws Exception {
+        PrecompileMojo mojo = new PrecompileMojo();
+        PrecompileMojoTest.set(mojo, "directory", directory);
+        PrecompileMojoTest.set(mojo, "includes", "**.conf");
+        PrecompileMojoTest.set(mojo, "skip", skip);
+        return mojo;
+    }
+
+    private static void set(PrecompileMojo mojo, String name, Object value) throws Exception {
+        Field field = PrecompileMojo.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(mojo, value);
+    }
+
+    @Test
+    public void testExecute() throws Exception {
+
+        PrecompileMojoTest.createMojo(this.directory.toFile(), false).execute();
+
+        assertTrue(Files.isRegularFile(this.directory.resolve("app.conf.bin")));
+        assertTrue(Files.isRegularFile(this.directory.resolve("nested/node.conf.bin")));
+        assertFalse(Files.exists(this.directory.resolve("notes.txt.bin")));
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{this.directory.toUri().toURL()}, null)) {
+            assertEquals(Configuration.parseResource("app.conf", classLoader).getInteger("database/port"), Integer.valueOf(9200));
+            assertEquals(Configuration.parseResource("nested/node.conf", classLoader).getString("host"), "192.168.1.10");
+
+            // a file changed after the precompilation is parsed again
+            this.createTestFile("app.conf", "database testdb {\n\tport 9300;\n}\n");
+            assertEquals(Configuration.parseResource("app.conf", classLoader).getInteger("database/port"), Integer.valueOf(9300));
+        }
+
+    }
+
+    @Test
+    public void testExecuteInvalid() throws Exception {
+
+        this.createTestFile("invalid.conf", "database testdb { ;\n");
+        try {
+            PrecompileMojoTest.createMojo(this.directory.toFile(), false).execute();
+            fail();
+        } catch (MojoFailureException e) {
+            assertTrue(e.getMessage().startsWith("1 of 3 configuration files are not valid:"));
+            assertTrue(e.getMessage().contains("invalid.conf: "));
+        }
+        assertFalse(Files.exists(this.directory.resolve("invalid.conf.bin")));
+
+    }
+
+    @Test
+    public void testExecuteInclude() throws Exception {
+
+        this.createTestFile("include.conf", "include \"nested/node.conf\";\n");
+        try {
+            PrecompileMojoTest.createMojo(this.directory.toFile(), false).execute();
+            fail();
+        } catch (MojoFailureException e) {
+            assertTrue(e.getMessage().contains("include.conf: An include is not allowed"));
+        }
+        assertFalse(Files.exists(this.directory.resolve("include.conf.bin")));
+
+    }
+
+    @Test
+    public void testExecuteSkip() throws Exception {
+
+        PrecompileMojoTest.createMojo(this.directory.toFile(), true).execute();
+        assertFalse(Files.exists(this.directory.resolve("app.conf.bin")));
+
+        PrecompileMojoTest.createMojo(this.directory.resolve("missing").toFile(), false).execute();
+
+    }
+
+}
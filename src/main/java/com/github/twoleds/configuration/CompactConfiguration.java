@@ -0,0 +1,148 @@
+package com.github.twoleds.configuration;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A configuration stored in a compact form for very large configurations.
+ * The whole tree is kept in a few parallel arrays of integers with a pool of
+ * distinct names and values, so a node costs a few integers instead of
+ * a configuration object with a list of children. Instances of this class
+ * are lightweight cursors to the tree, which are created only by queries.
+ */
+public class CompactConfiguration extends Configuration {
+
+    private final CompactTree tree;
+    private final int node;
+
+    private CompactConfiguration(CompactTree tree, int node) {
+        super(null, null, null);
+        this.tree = tree;
+        this.node = node;
+    }
+
+    /**
+     * It parses configuration values from the specified reader directly into
+     * the compact form. If the configuration is not valid it throws an
+     * exception.
+     *
+     * @throws ConfigurationException If the configuration is not valid.
+     */
+    public static CompactConfiguration parse(Reader reader) throws ConfigurationException {
+        CompactTree.Builder builder = new CompactTree.Builder();
+        try (ConfigurationParser parser = new ConfigurationParser(reader)) {
+            parser.parse(builder);
+        }
+        return new CompactConfiguration(builder.build(), 0);
+    }
+
+    /**
+     * It converts the specified configuration to the compact form.
+     */
+    public static CompactConfiguration of(Configuration configuration) {
+        if (configuration instanceof CompactConfiguration) {
+            return (CompactConfiguration)configuration;
+        }
+        CompactTree.Builder builder = new CompactTree.Builder();
+        return new CompactConfiguration(builder.add(configuration).build(), 0);
+    }
+
+    @Override
+    public String getName() {
+        return this.tree.getString(this.tree.getNameId(this.node));
+    }
+
+    @Override
+    public String getValue() {
+        return this.tree.getString(this.tree.getValueId(this.node));
+    }
+
+    @Override
+    /* package */ <T> T memoize(Function<Configuration, T> converter) {
+        return this.tree.getConversions().convert(this, this.node, converter);
+    }
+
+    @Override
+    /* package */ List<Configuration> getChildren() {
+        int child = this.tree.getFirstChild(this.node);
+        if (child == CompactTree.LEAF) {
+            return null;
+        }
+        List<Configuration> children = new ArrayList<>();
+        for (; child != CompactTree.NONE; child = this.tree.getNextSibling(child)) {
+            children.add(new CompactConfiguration(this.tree, child));
+        }
+        return children;
+    }
+
+    @Override
+    /* package */ <T> T find(String query, Function<Configuration, T> convertFunc) {
+        return this.query(this.node, this.compile(query), 0, convertFunc);
+    }
+
+    private <T> T query(int parent, int[] path, int level, Function<Configuration, T> convertFunc) {
+        if (path == null) {
+            return null;
+        }
+        int child = this.tree.getFirstChild(parent);
+        for (; child >= 0; child = this.tree.getNextSibling(child)) {
+            if (this.tree.getNameId(child) == path[level * 2]
+                    && (path[level * 2 + 1] < 0 || this.tree.getValueId(child) == path[level * 2 + 1])) {
+                T result = level * 2 + 2 == path.length
+                        ? convertFunc.apply(new CompactConfiguration(this.tree, child))
+                        : this.query(child, path, level + 1, convertFunc);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public <T> List<T> queryAll(String query, Function<Configuration, T> convertFunc) {
+        return this.queryAll(this.node, this.compile(query), 0, convertFunc, new ArrayList<>());
+    }
+
+    private <T> List<T> queryAll(int parent, int[] path, int level, Function<Configuration, T> convertFunc, List<T> result) {
+        if (path == null) {
+            return result;
+        }
+        int child = this.tree.getFirstChild(parent);
+        for (; child >= 0; child = this.tree.getNextSibling(child)) {
+            if (this.tree.getNameId(child) == path[level * 2]
+                    && (path[level * 2 + 1] < 0 || this.tree.getValueId(child) == path[level * 2 + 1])) {
+                if (level * 2 + 2 == path.length) {
+                    result.add(convertFunc.apply(new CompactConfiguration(this.tree, child)));
+                } else {
+                    this.queryAll(child, path, level + 1, convertFunc, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * It converts the query to pairs of name and value ids. A value id is
+     * <code>-1</code> for a segment without a condition. If any name or value
+     * doesn't exist in the tree, nothing can match and it returns the
+     * <code>null</code> value.
+     */
+    private int[] compile(String query) {
+        String[] segments = query.split("/");
+        int[] path = new int[segments.length * 2];
+        for (int i = 0; i < segments.length; i++) {
+            int index = segments[i].indexOf(':');
+            String name = index >= 0 ? segments[i].substring(0, index) : segments[i];
+            path[i * 2] = this.tree.findString(name);
+            path[i * 2 + 1] = index >= 0 ? this.tree.findString(segments[i].substring(index + 1)) : -1;
+            if (path[i * 2] < 0 || (index >= 0 && path[i * 2 + 1] < 0)) {
+                return null;
+            }
+        }
+        return path;
+    }
+
+}
@@ -0,0 +1,189 @@
+package com.github.twoleds.configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A configuration tree stored in parallel arrays. Every node is an index to
+ * the arrays of first children, next siblings, names and values. Names and
+ * values are indexes to a sorted pool of distinct strings, so an id of a
+ * string can be found by binary search. A node without children list (a
+ * value) has the first child {@link #LEAF}, a section without children has
+ * the first child {@link #NONE}.
+ */
+/* package */ class CompactTree {
+
+    /* package */ static final int NONE = -1;
+    /* package */ static final int LEAF = -2;
+
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] nameId;
+    private final int[] valueId;
+    private final String[] strings;
+    private final ConfigurationConversions conversions;
+
+    private CompactTree(Builder builder) {
+        int size = builder.size;
+        this.firstChild = Arrays.copyOf(builder.firstChild, size);
+        this.nextSibling = Arrays.copyOf(builder.nextSibling, size);
+        this.nameId = new int[size];
+        this.valueId = new int[size];
+        this.strings = builder.strings.toArray(new String[builder.strings.size()]);
+        Arrays.sort(this.strings);
+
+        // strings are interned in the order of nodes, ids are remapped to
+        // positions in the sorted pool
+        int[] ids = new int[this.strings.length];
+        for (int i = 0; i < this.strings.length; i++) {
+            ids[builder.ids.get(this.strings[i])] = i;
+        }
+        for (int node = 0; node < size; node++) {
+            this.nameId[node] = ids[builder.nameId[node]];
+            this.valueId[node] = ids[builder.valueId[node]];
+        }
+        this.conversions = new ConfigurationConversions(size);
+    }
+
+    /* package */ ConfigurationConversions getConversions() {
+        return this.conversions;
+    }
+
+    /* package */ int size() {
+        return this.firstChild.length;
+    }
+
+    /* package */ int getFirstChild(int node) {
+        return this.firstChild[node];
+    }
+
+    /* package */ int getNextSibling(int node) {
+        return this.nextSibling[node];
+    }
+
+    /* package */ int getNameId(int node) {
+        return this.nameId[node];
+    }
+
+    /* package */ int getValueId(int node) {
+        return this.valueId[node];
+    }
+
+    /* package */ String getString(int id) {
+        return this.strings[id];
+    }
+
+    /**
+     * It returns an id of the specified string or <code>-1</code> if there
+     * isn't such string in the pool.
+     */
+    /* package */ int findString(String string) {
+        int id = Arrays.binarySearch(this.strings, string);
+        return id >= 0 ? id : -1;
+    }
+
+    /**
+     * It builds the tree from values and sections reported by the parser or
+     * from an existing configuration.
+     */
+    /* package */ static class Builder implements ConfigurationParser.Handler {
+
+        private int[] parent = new int[16];
+        private int[] firstChild = new int[16];
+        private int[] lastChild = new int[16];
+        private int[] nextSibling = new int[16];
+        private int[] nameId = new int[16];
+        private int[] valueId = new int[16];
+        private int size = 0;
+        private int current;
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> strings = new ArrayList<>();
+
+        /* package */ Builder() {
+            this.current = this.add(NONE, "", "", NONE);
+        }
+
+        @Override
+        public void value(String name, String value) {
+            this.add(this.current, name, value, LEAF);
+        }
+
+        @Override
+        public void startSection(String name, String value) {
+            this.current = this.add(this.current, name, value, NONE);
+        }
+
+        @Override
+        public void endSection() {
+            this.current = this.parent[this.current];
+        }
+
+        /* package */ Builder add(Configuration configuration) {
+            List<Configuration> children = configuration.getChildren();
+            if (children != null) {
+                for (Configuration child : children) {
+                    if (child.getChildren() == null) {
+                        this.value(child.getName(), child.getValue());
+                    } else {
+                        this.startSection(child.getName(), child.getValue());
+                        this.add(child);
+                        this.endSection();
+                    }
+                }
+            }
+            return this;
+        }
+
+        /* package */ CompactTree build() {
+            return new CompactTree(this);
+        }
+
+        private int add(int parent, String name, String value, int firstChild) {
+
+            if (this.size == this.parent.length) {
+                int capacity = this.size + (this.size >> 1);
+                this.parent = Arrays.copyOf(this.parent, capacity);
+                this.firstChild = Arrays.copyOf(this.firstChild, capacity);
+                this.lastChild = Arrays.copyOf(this.lastChild, capacity);
+                this.nextSibling = Arrays.copyOf(this.nextSibling, capacity);
+                this.nameId = Arrays.copyOf(this.nameId, capacity);
+                this.valueId = Arrays.copyOf(this.valueId, capacity);
+            }
+
+            int node = this.size++;
+            this.parent[node] = parent;
+            this.firstChild[node] = firstChild;
+            this.lastChild[node] = NONE;
+            this.nextSibling[node] = NONE;
+            this.nameId[node] = this.intern(name);
+            this.valueId[node] = this.intern(value);
+
+            if (parent != NONE) {
+                if (this.lastChild[parent] == NONE) {
+                    this.firstChild[parent] = node;
+                } else {
+                    this.nextSibling[this.lastChild[parent]] = node;
+                }
+                this.lastChild[parent] = node;
+            }
+            return node;
+
+        }
+
+        private int intern(String string) {
+            Integer id = this.ids.get(string);
+            if (id == null) {
+                id = this.strings.size();
+                this.ids.put(string, id);
+                this.strings.add(string);
+            }
+            return id;
+        }
+
+    }
+
+}
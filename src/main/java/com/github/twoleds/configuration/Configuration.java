@@ -4,26 +4,32 @@ import java.io.*;
 import java.net.URI;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 public class Configuration {
 
+    private static final int MAX_CONVERTED = 4;
+
     private final String name;
     private final String value;
     private final List<Configuration> children;
+    private volatile Object[] converted;
 
     /**
      * It parses configuration values direct from the specified input string.
-     * If the input string is not valid it throws an exception.
+     * If the input string is not valid it throws an exception. The string is
+     * parsed by a parser cached by the current thread, see
+     * {@link ConfigurationParser#threadLocal()}.
      *
      * @throws ConfigurationException If the input string is not valid.
      */
     public static Configuration parse(String configuration) throws ConfigurationException {
-        try (ConfigurationParser parser = new ConfigurationParser(new StringReader(configuration))) {
-            return parser.parse();
-        }
+        return ConfigurationParser.threadLocal().reset(configuration).parse();
     }
 
     /**
@@ -33,33 +39,185 @@ public class Configuration {
      * @throws ConfigurationException If the input file is not valid.
      */
     public static Configuration parse(File file) throws ConfigurationException {
-        try (ConfigurationParser parser = new ConfigurationParser(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+        return Configuration.parse(file.toPath());
+    }
+
+    /**
+     * It parses configuration values from the specified input file. If the
+     * configuration from the file is not valid it throws an exception. If the
+     * {@link ConfigurationCache} is enabled, an unchanged file is read from
+     * the cache instead of parsing.
+     *
+     * @throws ConfigurationException If the input file is not valid.
+     */
+    public static Configuration parse(Path path) throws ConfigurationException {
+        Path cacheDirectory = ConfigurationCache.getDirectory();
+        if (cacheDirectory != null) {
+            return ConfigurationCache.parse(path, cacheDirectory);
+        }
+        try (ConfigurationParser parser = new ConfigurationParser(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), path)) {
             return parser.parse();
         } catch (IOException e) {
             throw new ConfigurationException("An I/O error occurred.", e);
         }
     }
 
+    /**
+     * It parses configuration values from all files with the extension
+     * <code>.conf</code> in the specified directory. See
+     * {@link #parseDirectory(Path, String, Executor)} for details.
+     *
+     * @throws ConfigurationException If any of the files is not valid.
+     */
+    public static Configuration parseDirectory(Path directory) throws ConfigurationException {
+        return Configuration.parseDirectory(directory, "*.conf", null);
+    }
+
+    /**
+     * It parses configuration values from all files matching the specified
+     * glob pattern in the specified directory. See
+     * {@link #parseDirectory(Path, String, Executor)} for details.
+     *
+     * @throws ConfigurationException If any of the files is not valid.
+     */
+    public static Configuration parseDirectory(Path directory, String glob) throws ConfigurationException {
+        return Configuration.parseDirectory(directory, glob, null);
+    }
+
+    /**
+     * It parses configuration values from all files matching the specified
+     * glob pattern in the specified directory. The files are parsed
+     * concurrently by the specified executor, if the executor is
+     * <code>null</code> it uses virtual threads when the JVM supports them or
+     * the common fork-join pool. Configuration values of all files are merged
+     * under a single root in the order of file names. If any of the files is
+     * not valid it throws an exception with an error of every invalid file
+     * attached as a suppressed exception.
+     *
+     * @throws ConfigurationException If any of the files is not valid.
+     */
+    public static Configuration parseDirectory(Path directory, String glob, Executor executor) throws ConfigurationException {
+        return ConfigurationLoader.merge(
+                ConfigurationLoader.parseAll(ConfigurationLoader.list(directory, glob), executor)
+        );
+    }
+
     /**
      * It parses configuration values from the specified input URL. If the
-     * configuration from the URL is not valid it throws an exception.
+     * configuration from the URL is not valid it throws an exception. The URL
+     * is downloaded and parsed on every call, a URL which is polled should be
+     * loaded by {@link ConfigurationUrlLoader}, which downloads and parses
+     * only a modified configuration.
      *
      * @throws ConfigurationException If the input file is not valid.
      */
     public static Configuration parse(URL url) throws ConfigurationException {
         try (ConfigurationParser parser = new ConfigurationParser(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            parser.setSource(url.toString());
             return parser.parse();
         } catch (IOException e) {
             throw new ConfigurationException("An I/O error occurred.", e);
         }
     }
 
+    /**
+     * It loads configuration values from the specified class path resource
+     * using the class loader of this class. See
+     * {@link #parseResource(String, ClassLoader)} for details.
+     *
+     * @throws ConfigurationException If the resource is not valid.
+     */
+    public static Configuration parseResource(String name) throws ConfigurationException {
+        return Configuration.parseResource(name, Configuration.class.getClassLoader());
+    }
+
+    /**
+     * It loads configuration values from the specified class path resource.
+     * If there is a precompiled resource with the same name and the extension
+     * <code>.bin</code> (for example <code>app.conf.bin</code>) written with
+     * a hash of the current resource, it reads the binary form without any
+     * parsing, otherwise it parses the resource. A stale precompiled resource
+     * is ignored. A resource cannot include other files, so the hash covers
+     * the whole configuration. If there is only the precompiled resource,
+     * it's read without any check. If the resource cannot be found or it's
+     * not valid it throws an exception.
+     *
+     * @throws ConfigurationException If the resource is not valid.
+     */
+    public static Configuration parseResource(String name, ClassLoader classLoader) throws ConfigurationException {
+        URL precompiled = classLoader.getResource(name + ".bin");
+        URL resource = classLoader.getResource(name);
+        if (resource == null && precompiled == null) {
+            throw new ConfigurationException(String.format("A resource \"%s\" cannot be found.", name));
+        }
+        try {
+
+            byte[] source = null;
+            if (resource != null) {
+                try (InputStream input = resource.openStream()) {
+                    source = input.readAllBytes();
+                }
+            }
+
+            if (precompiled != null) {
+                try (InputStream input = precompiled.openStream()) {
+                    Configuration configuration = ConfigurationBinary.read(
+                            input, source != null ? ConfigurationBinary.hash(source) : null
+                    );
+                    if (configuration != null) {
+                        return configuration;
+                    }
+                }
+            }
+
+            try (ConfigurationParser parser = new ConfigurationParser(
+                    new InputStreamReader(new ByteArrayInputStream(source), StandardCharsets.UTF_8)
+            )) {
+                parser.setSource(resource.toString());
+                return parser.parse();
+            }
+
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+    }
+
+    /**
+     * It reads configuration values from the specified input stream in the
+     * binary form written by {@link #writeBinary(OutputStream)}. If the input
+     * stream doesn't contain a valid binary configuration it throws an
+     * exception.
+     *
+     * @throws ConfigurationException If the input stream is not valid.
+     */
+    public static Configuration readBinary(InputStream input) throws ConfigurationException {
+        return ConfigurationBinary.read(input);
+    }
+
     /* package */ Configuration(String name, String value, List<Configuration> children) {
         this.name = name;
         this.value = value;
         this.children = children;
     }
 
+    /**
+     * It creates a merged view of the specified configuration layers. The
+     * layers are ordered from the lowest to the highest priority, so values
+     * from later layers override values with the same path from earlier
+     * layers. Sections with the same name and value are merged together.
+     * The view is resolved lazily and it doesn't copy the layers.
+     */
+    public static Configuration overlay(Configuration... layers) {
+        if (layers.length == 0) {
+            return new Configuration("", "", new ArrayList<>());
+        }
+        if (layers.length == 1) {
+            return layers[0];
+        }
+        Configuration top = layers[layers.length - 1];
+        return new OverlayConfiguration(top.getName(), top.getValue(), layers.clone());
+    }
+
     public String getName() {
         return this.name;
     }
@@ -68,6 +226,82 @@ public class Configuration {
         return this.value;
     }
 
+    /**
+     * It resolves all references in configuration values and returns a new
+     * configuration with the resolved values. A reference <code>${query}</code>
+     * is replaced by the value found by the query from this configuration,
+     * <code>${env:NAME}</code> by an environment variable and
+     * <code>${sys:name}</code> by a system property. If a reference cannot be
+     * resolved or references are cyclic it throws an exception.
+     *
+     * @throws ConfigurationException If a reference cannot be resolved.
+     */
+    public Configuration interpolate() throws ConfigurationException {
+        return new ConfigurationInterpolator(this).interpolate();
+    }
+
+    /**
+     * It estimates the memory footprint of this configuration: the numbers of
+     * nodes and leaves, sizes of strings, unused capacity of lists of
+     * children and the retained size of the whole tree and of every
+     * top-level entry. Top-level entries of large configurations are walked
+     * in parallel. See {@link ConfigurationFootprint} for details.
+     */
+    public ConfigurationFootprint footprint() {
+        return ConfigurationFootprint.of(this);
+    }
+
+    /**
+     * It writes this configuration to the specified output stream in a
+     * compact binary form. The binary form can be read back by
+     * {@link #readBinary(InputStream)} without any parsing of the text form.
+     */
+    public void writeBinary(OutputStream output) throws IOException {
+        ConfigurationBinary.write(this, output);
+    }
+
+    /**
+     * It writes this configuration in the binary form together with a hash
+     * of the specified source text, so {@link #parseResource(String)} can
+     * recognize a precompiled resource which is older than its source.
+     */
+    public void writeBinary(OutputStream output, byte[] source) throws IOException {
+        ConfigurationBinary.write(this, output, ConfigurationBinary.hash(source));
+    }
+
+    /**
+     * It writes all values and sections of this configuration to the
+     * specified builder in the text form, which can be parsed back to an
+     * equal configuration. If the builder uses the canonical style, children
+     * of every section are written in a stable order by their names.
+     */
+    public void writeTo(ConfigurationBuilder builder) throws IOException {
+        ConfigurationWriter.write(this, builder);
+    }
+
+    /**
+     * It writes all values and sections of this configuration to the
+     * specified writer in the text form, which can be parsed back to an
+     * equal configuration. Top-level sections of large configurations are
+     * rendered in parallel. The writer is flushed, but it's not closed.
+     */
+    public void writeTo(Writer writer) throws IOException {
+        ConfigurationWriter.write(this, writer, ConfigurationBuilder.Style.PRETTY);
+    }
+
+    /**
+     * It writes all values and sections of this configuration to the
+     * specified writer in the text form of the specified style. See
+     * {@link #writeTo(Writer)} for details.
+     */
+    public void writeTo(Writer writer, ConfigurationBuilder.Style style) throws IOException {
+        ConfigurationWriter.write(this, writer, style);
+    }
+
+    /* package */ List<Configuration> getChildren() {
+        return this.children;
+    }
+
     private String[] parseCond(String[] path) {
         String[] cond = new String[path.length];
         for (int i = 0; i < path.length; i++) {
@@ -107,18 +341,27 @@ public class Configuration {
      * the parameter <code>convertFunc</code>.
      */
     public <T> T query(String query, Function<Configuration, T> convertFunc, T defaultValue) {
-        return this.query(query.split("/"), convertFunc, defaultValue);
+        if (ConfigurationProfiler.isEnabled()) {
+            return ConfigurationProfiler.profile(this, query, convertFunc, defaultValue);
+        }
+        T result = this.find(query, convertFunc);
+        return result != null ? result : defaultValue;
     }
 
-    private <T> T query(String[] path, Function<Configuration, T> convertFunc, T defaultValue) {
-        T result = this.query(path, this.parseCond(path), convertFunc, 0);
-        return result != null ? result : defaultValue;
+    /**
+     * It finds and converts a configuration value, or it returns the
+     * <code>null</code> value if the value cannot be found.
+     */
+    /* package */ <T> T find(String query, Function<Configuration, T> convertFunc) {
+        String[] path = query.split("/");
+        return this.query(path, this.parseCond(path), convertFunc, 0);
     }
 
     private <T> T query(String[] path, String[] cond, Function<Configuration, T> convertFunc, int level) {
         T result = null;
-        if (this.children != null) {
-            for (Configuration configuration : this.children) {
+        List<Configuration> children = this.getChildren();
+        if (children != null) {
+            for (Configuration configuration : children) {
                 if (configuration.getName().equals(path[level])) {
                     if (cond[level] == null || configuration.getValue().equals(cond[level])) {
                         if (level == path.length - 1) {
@@ -150,8 +393,9 @@ public class Configuration {
     }
 
     private <T> List<T> queryAll(String[] path, String[] cond, Function<Configuration, T> convertFunc, List<T> result, int level) {
-        if (this.children != null) {
-            for (Configuration configuration : this.children) {
+        List<Configuration> children = this.getChildren();
+        if (children != null) {
+            for (Configuration configuration : children) {
                 if (configuration.getName().equals(path[level])) {
                     if (cond[level] == null || configuration.getValue().equals(cond[level])) {
                         if (level == path.length - 1) {
@@ -172,7 +416,7 @@ public class Configuration {
      * throws a runtime exception.
      */
     public Boolean getBoolean() {
-        switch (this.value.toLowerCase()) {
+        switch (this.getValue().toLowerCase()) {
             case "on":
             case "true":
             case "1":
@@ -214,7 +458,7 @@ public class Configuration {
      * a runtime exception.
      */
     public Byte getByte() {
-        return Byte.parseByte(this.value);
+        return Byte.parseByte(this.getValue());
     }
 
     /**
@@ -242,7 +486,7 @@ public class Configuration {
      * It converts and returns a configuration value as a character value.
      */
     public Character getCharacter() {
-        return this.value.charAt(0);
+        return this.getValue().charAt(0);
     }
 
     /**
@@ -270,7 +514,7 @@ public class Configuration {
      * converted to a number it throws a runtime exception.
      */
     public Double getDouble() {
-        return Double.parseDouble(this.value);
+        return Double.parseDouble(this.getValue());
     }
 
     /**
@@ -301,7 +545,7 @@ public class Configuration {
      * number it throws a runtime exception.
      */
     public Float getFloat() {
-        return Float.parseFloat(this.value);
+        return Float.parseFloat(this.getValue());
     }
 
     /**
@@ -332,7 +576,7 @@ public class Configuration {
      * a runtime exception.
      */
     public Integer getInteger() {
-        return Integer.parseInt(this.value);
+        return Integer.parseInt(this.getValue());
     }
 
     /**
@@ -362,7 +606,7 @@ public class Configuration {
      * throws a runtime exception.
      */
     public Long getLong() {
-        return Long.parseLong(this.value);
+        return Long.parseLong(this.getValue());
     }
 
     /**
@@ -393,7 +637,7 @@ public class Configuration {
      * throws a runtime exception.
      */
     public Short getShort() {
-        return Short.parseShort(this.value);
+        return Short.parseShort(this.getValue());
     }
 
     /**
@@ -423,7 +667,7 @@ public class Configuration {
      * configuration value as-is without any conversion.
      */
     public String getString() {
-        return this.value;
+        return this.getValue();
     }
 
     /**
@@ -447,4 +691,132 @@ public class Configuration {
         return this.query(query, Configuration::getString, defaultValue);
     }
 
+    /**
+     * It converts and returns a configuration value as a value of the
+     * specified type by a converter from {@link ConfigurationConverters}.
+     * Results of cached converters are cached by this configuration, so the
+     * value is converted only once. If the configuration value cannot be converted it throws
+     * a runtime exception.
+     *
+     * @throws IllegalArgumentException If there is no converter of the type.
+     */
+    public <T> T getAs(Class<T> type) {
+        return this.convert(ConfigurationConverters.get(type));
+    }
+
+    /**
+     * It finds, converts and returns a configuration value as a value of the
+     * specified type. If the configuration value cannot be found by the
+     * specified <code>query</code> parameter it returns a <code>null</code>
+     * value. See {@link #getAs(Class)} for details.
+     */
+    public <T> T getAs(String query, Class<T> type) {
+        return this.getAs(query, type, null);
+    }
+
+    /**
+     * It finds, converts and returns a configuration value as a value of the
+     * specified type. If the configuration value cannot be found by the
+     * specified <code>query</code> parameter it returns a default value from
+     * the parameter <code>defaultValue</code>. See {@link #getAs(Class)} for
+     * details.
+     */
+    public <T> T getAs(String query, Class<T> type, T defaultValue) {
+        Function<Configuration, T> converter = ConfigurationConverters.get(type);
+        return this.query(query, configuration -> configuration.convert(converter), defaultValue);
+    }
+
+    /**
+     * It converts and returns a configuration value like <code>10MB</code> as
+     * a number of bytes. The converted value is cached by this
+     * configuration. If the configuration value cannot be converted it
+     * throws a runtime exception.
+     */
+    public Long getSize() {
+        return this.convert(ConfigurationConverters.SIZE);
+    }
+
+    /**
+     * It finds, converts and returns a configuration value as a number of
+     * bytes. If the configuration value cannot be found by the specified
+     * <code>query</code> parameter it returns a <code>null</code> value.
+     */
+    public Long getSize(String query) {
+        return this.getSize(query, null);
+    }
+
+    /**
+     * It finds, converts and returns a configuration value as a number of
+     * bytes. If the configuration value cannot be found by the specified
+     * <code>query</code> parameter it returns a default value from the
+     * parameter <code>defaultValue</code>.
+     */
+    public Long getSize(String query, Long defaultValue) {
+        return this.query(query, Configuration::getSize, defaultValue);
+    }
+
+    /**
+     * It converts and returns a configuration value like <code>75%</code> as
+     * a fraction. The converted value is cached by this configuration. If the
+     * configuration value cannot be converted it throws a runtime exception.
+     */
+    public Double getPercentage() {
+        return this.convert(ConfigurationConverters.PERCENTAGE);
+    }
+
+    /**
+     * It finds, converts and returns a configuration value as a fraction. If
+     * the configuration value cannot be found by the specified
+     * <code>query</code> parameter it returns a <code>null</code> value.
+     */
+    public Double getPercentage(String query) {
+        return this.getPercentage(query, null);
+    }
+
+    /**
+     * It finds, converts and returns a configuration value as a fraction. If
+     * the configuration value cannot be found by the specified
+     * <code>query</code> parameter it returns a default value from the
+     * parameter <code>defaultValue</code>.
+     */
+    public Double getPercentage(String query, Double defaultValue) {
+        return this.query(query, Configuration::getPercentage, defaultValue);
+    }
+
+    /**
+     * It converts the value by the specified converter. Results of cached
+     * converters are memoized, see {@link ConfigurationConverters}.
+     */
+    /* package */ <T> T convert(Function<Configuration, T> converter) {
+        return ConfigurationConverters.isCached(converter) ? this.memoize(converter) : converter.apply(this);
+    }
+
+    /**
+     * It converts the value by the specified converter and caches results of
+     * the last {@link #MAX_CONVERTED} converters in an array of converters
+     * and their results. The array is filled before it's published by the
+     * volatile field and it's never modified afterwards, so readers see
+     * complete pairs and concurrent conversions can at worst convert the
+     * value again.
+     */
+    @SuppressWarnings("unchecked")
+    /* package */ <T> T memoize(Function<Configuration, T> converter) {
+        Object[] converted = this.converted;
+        int length = converted != null ? converted.length : 0;
+        for (int i = 0; i < length; i += 2) {
+            if (converted[i] == converter) {
+                return (T)converted[i + 1];
+            }
+        }
+        T value = converter.apply(this);
+        Object[] memoized = new Object[Math.min(length, MAX_CONVERTED * 2 - 2) + 2];
+        memoized[0] = converter;
+        memoized[1] = value;
+        if (length > 0) {
+            System.arraycopy(converted, 0, memoized, 2, memoized.length - 2);
+        }
+        this.converted = memoized;
+        return value;
+    }
+
 }
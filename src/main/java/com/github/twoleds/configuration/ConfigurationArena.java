@@ -0,0 +1,179 @@
+package com.github.twoleds.configuration;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An off-heap storage of large configuration values. When a parser uses an
+ * arena, every quoted value longer than the threshold of the arena is
+ * encoded to UTF-8 into direct memory and the value is decoded only when
+ * it's requested by {@link Configuration#getValue()}. The heap then holds
+ * only the structure of the configuration, not the large values.
+ * <p>
+ * Values are stored in chunks of direct memory. A value which doesn't fit
+ * the rest of the current chunk starts a new chunk and the rest of the
+ * previous chunk stays unused, a value larger than a chunk gets its own
+ * buffer and the current chunk is kept.
+ * <p>
+ * Closing the arena doesn't free its memory, it only prevents reading of its
+ * values. The memory is released by the garbage collector when the arena and
+ * all configurations parsed with it become unreachable.
+ */
+public class ConfigurationArena implements AutoCloseable {
+
+    public static final int DEFAULT_THRESHOLD = 1024;
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    private final int threshold;
+    private final int chunkSize;
+    private final CharsetEncoder encoder;
+    private ByteBuffer chunk;
+    private long size;
+    private long allocated;
+    private volatile boolean closed;
+
+    public ConfigurationArena() {
+        this(DEFAULT_THRESHOLD, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * It creates an arena which stores values longer than the specified
+     * number of characters. The memory is allocated in chunks of the
+     * specified size, larger values get their own buffer.
+     */
+    public ConfigurationArena(int threshold, int chunkSize) {
+        if (threshold < 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.threshold = threshold;
+        this.chunkSize = chunkSize;
+        this.encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    public int getThreshold() {
+        return this.threshold;
+    }
+
+    /**
+     * It returns the number of bytes of all values stored in the arena.
+     */
+    public synchronized long getSize() {
+        return this.size;
+    }
+
+    /**
+     * It returns the number of bytes of direct memory allocated by the arena.
+     */
+    /* package */ synchronized long getAllocated() {
+        return this.allocated;
+    }
+
+    /**
+     * It closes the arena, so its values cannot be read anymore. It doesn't
+     * free the direct memory of the arena, which is released by the garbage
+     * collector when the arena and its configurations become unreachable.
+     */
+    @Override
+    public synchronized void close() {
+        this.closed = true;
+        this.chunk = null;
+    }
+
+    /**
+     * It stores the specified value and returns a leaf configuration which
+     * decodes the value from the arena.
+     */
+    /* package */ synchronized Configuration store(String name, CharSequence value) {
+
+        if (this.closed) {
+            throw new IllegalStateException("The arena has been closed.");
+        }
+
+        long encodedLength = ConfigurationArena.encodedLength(value);
+        if (encodedLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("A value cannot be stored in the arena.");
+        }
+        int length = (int)encodedLength;
+
+        ByteBuffer buffer;
+        if (length > this.chunkSize) {
+            buffer = ByteBuffer.allocateDirect(length);
+            this.allocated += length;
+        } else {
+            if (this.chunk == null || this.chunk.remaining() < length) {
+                this.chunk = ByteBuffer.allocateDirect(this.chunkSize);
+                this.allocated += this.chunkSize;
+            }
+            buffer = this.chunk;
+        }
+
+        int offset = buffer.position();
+        this.encoder.reset();
+        CoderResult result = this.encoder.encode(CharBuffer.wrap(value), buffer, true);
+        if (!result.isUnderflow() || !this.encoder.flush(buffer).isUnderflow() || buffer.position() - offset != length) {
+            throw new IllegalStateException("A value cannot be stored in the arena.");
+        }
+        this.size += length;
+
+        ByteBuffer slice = buffer.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return new Value(name, this, slice.slice());
+
+    }
+
+    /**
+     * It returns the number of bytes of the value encoded to UTF-8, a
+     * malformed surrogate is replaced by a single byte.
+     */
+    private static long encodedLength(CharSequence value) {
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * A configuration value stored in the arena.
+     */
+    private static class Value extends Configuration {
+
+        private final ConfigurationArena arena;
+        private final ByteBuffer buffer;
+
+        private Value(String name, ConfigurationArena arena, ByteBuffer buffer) {
+            super(name, null, null);
+            this.arena = arena;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public String getValue() {
+            if (this.arena.closed) {
+                throw new IllegalStateException("The arena has been closed.");
+            }
+            return StandardCharsets.UTF_8.decode(this.buffer.duplicate()).toString();
+        }
+
+    }
+
+}
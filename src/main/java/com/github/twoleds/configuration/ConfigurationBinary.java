@@ -0,0 +1,329 @@
+package com.github.twoleds.configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact binary form of configurations. It starts with a magic number,
+ * a format version and an optional SHA-256 hash of the source text, followed
+ * by a table of all distinct names and values and the tree in pre-order. Every node is written as an index of its name, an
+ * index of its value and a number of its children plus one, zero is used for
+ * nodes without children. All numbers are written as variable-length
+ * integers with 7 bits per byte.
+ * <p>
+ * Counts are checked against the remaining bytes before anything is
+ * allocated, every string takes at least one byte and every node at least
+ * three bytes, and the tree is read by an explicit stack, so a corrupted
+ * input fails with an exception instead of exhausting the memory or the
+ * call stack.
+ */
+/* package */ class ConfigurationBinary {
+
+    private static final byte[] MAGIC = {'T', 'L', 'C', 'B'};
+    private static final int VERSION = 2;
+    private static final int MIN_STRING_SIZE = 1;
+    private static final int MIN_NODE_SIZE = 3;
+
+    private ConfigurationBinary() {
+    }
+
+    /* package */ static void write(Configuration configuration, OutputStream output) throws IOException {
+        ConfigurationBinary.write(configuration, output, null);
+    }
+
+    /**
+     * It writes the configuration together with the specified hash of its
+     * source, the <code>null</code> value writes no hash.
+     */
+    /* package */ static void write(Configuration configuration, OutputStream output, byte[] sourceHash) throws IOException {
+
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> strings = new ArrayList<>();
+        ConfigurationBinary.collect(configuration, ids, strings);
+
+        Output out = new Output(output);
+        out.write(MAGIC);
+        out.writeVarInt(VERSION);
+        if (sourceHash != null) {
+            out.writeVarInt(sourceHash.length);
+            out.write(sourceHash);
+        } else {
+            out.writeVarInt(0);
+        }
+        out.writeVarInt(strings.size());
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeVarInt(bytes.length);
+            out.write(bytes);
+        }
+        ConfigurationBinary.write(configuration, ids, out);
+        out.flush();
+
+    }
+
+    private static void collect(Configuration configuration, Map<String, Integer> ids, List<String> strings) {
+        for (String string : new String[]{configuration.getName(), configuration.getValue()}) {
+            if (!ids.containsKey(string)) {
+                ids.put(string, strings.size());
+                strings.add(string);
+            }
+        }
+        List<Configuration> children = configuration.getChildren();
+        if (children != null) {
+            for (Configuration child : children) {
+                ConfigurationBinary.collect(child, ids, strings);
+            }
+        }
+    }
+
+    private static void write(Configuration configuration, Map<String, Integer> ids, Output out) throws IOException {
+        out.writeVarInt(ids.get(configuration.getName()));
+        out.writeVarInt(ids.get(configuration.getValue()));
+        List<Configuration> children = configuration.getChildren();
+        if (children == null) {
+            out.writeVarInt(0);
+        } else {
+            out.writeVarInt(children.size() + 1);
+            for (Configuration child : children) {
+                ConfigurationBinary.write(child, ids, out);
+            }
+        }
+    }
+
+    /* package */ static Configuration read(InputStream input) throws ConfigurationException {
+        return ConfigurationBinary.read(input, null);
+    }
+
+    /**
+     * It reads the configuration if it has been written with the specified
+     * hash of its source, otherwise it returns the <code>null</code> value.
+     * The <code>null</code> hash accepts any configuration.
+     */
+    /* package */ static Configuration read(InputStream input, byte[] sourceHash) throws ConfigurationException {
+
+        Input in;
+        try {
+            in = new Input(ConfigurationBinary.readFully(input));
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+
+        try {
+
+            for (byte b : MAGIC) {
+                if (in.readByte() != b) {
+                    throw new ConfigurationException("An invalid format of the binary configuration.");
+                }
+            }
+
+            int version = in.readVarInt();
+            if (version != VERSION) {
+                throw new ConfigurationException(
+                        String.format("An unsupported version %d of the binary configuration.", version)
+                );
+            }
+
+            byte[] hash = new byte[in.checkCount(in.readVarInt(), 1)];
+            for (int i = 0; i < hash.length; i++) {
+                hash[i] = in.readByte();
+            }
+            if (sourceHash != null && !Arrays.equals(hash, sourceHash)) {
+                return null;
+            }
+
+            String[] strings = new String[in.checkCount(in.readVarInt(), MIN_STRING_SIZE)];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = in.readString(in.readVarInt());
+            }
+
+            Configuration configuration = ConfigurationBinary.read(in, strings);
+            if (in.position != in.data.length) {
+                throw new ConfigurationException("An invalid format of the binary configuration.");
+            }
+            return configuration;
+
+        } catch (IndexOutOfBoundsException e) {
+            throw new ConfigurationException("An invalid format of the binary configuration.", e);
+        }
+
+    }
+
+    private static Configuration read(Input in, String[] strings) {
+        List<Section> stack = new ArrayList<>();
+        while (true) {
+
+            String name = strings[in.readVarInt()];
+            String value = strings[in.readVarInt()];
+            int count = in.readVarInt();
+            in.checkCount(count - 1, MIN_NODE_SIZE);
+            if (count > 1) {
+                stack.add(new Section(name, value, count - 1));
+                continue;
+            }
+
+            Configuration configuration = new Configuration(name, value, count == 0 ? null : new ArrayList<>(0));
+            while (true) {
+                if (stack.isEmpty()) {
+                    return configuration;
+                }
+                Section section = stack.get(stack.size() - 1);
+                section.children.add(configuration);
+                if (section.children.size() < section.count) {
+                    break;
+                }
+                stack.remove(stack.size() - 1);
+                configuration = new Configuration(section.name, section.value, section.children);
+            }
+
+        }
+    }
+
+    /**
+     * It returns a SHA-256 hash of the specified data, like the source text
+     * of a configuration.
+     */
+    /* package */ static byte[] hash(byte[] source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] readFully(InputStream input) throws IOException {
+        byte[] data = new byte[8192];
+        int length = 0;
+        for (int n = input.read(data, 0, data.length); n >= 0; n = input.read(data, length, data.length - length)) {
+            length += n;
+            if (length == data.length) {
+                data = Arrays.copyOf(data, data.length * 2);
+            }
+        }
+        return length == data.length ? data : Arrays.copyOf(data, length);
+    }
+
+    private static class Input {
+
+        private final byte[] data;
+        private int position;
+
+        private Input(byte[] data) {
+            this.data = data;
+            this.position = 0;
+        }
+
+        private byte readByte() {
+            if (this.position >= this.data.length) {
+                throw new IndexOutOfBoundsException();
+            }
+            return this.data[this.position++];
+        }
+
+        private int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = this.readByte();
+                result |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    if (result < 0) {
+                        throw new IndexOutOfBoundsException();
+                    }
+                    return result;
+                }
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        /**
+         * It checks that the remaining bytes can hold the specified number
+         * of items which take at least the specified number of bytes each.
+         */
+        private int checkCount(int count, int size) {
+            if (count > (this.data.length - this.position) / size) {
+                throw new IndexOutOfBoundsException();
+            }
+            return count;
+        }
+
+        private String readString(int length) {
+            if (length > this.data.length - this.position) {
+                throw new IndexOutOfBoundsException();
+            }
+            String result = new String(this.data, this.position, length, StandardCharsets.UTF_8);
+            this.position += length;
+            return result;
+        }
+
+    }
+
+    /**
+     * A section which is being read.
+     */
+    private static class Section {
+
+        private final String name;
+        private final String value;
+        private final int count;
+        private final List<Configuration> children;
+
+        private Section(String name, String value, int count) {
+            this.name = name;
+            this.value = value;
+            this.count = count;
+            this.children = new ArrayList<>(count);
+        }
+
+    }
+
+    private static class Output {
+
+        private final OutputStream output;
+        private final byte[] buffer;
+        private int position;
+
+        private Output(OutputStream output) {
+            this.output = output;
+            this.buffer = new byte[8192];
+            this.position = 0;
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            if (bytes.length > this.buffer.length - this.position) {
+                this.flush();
+                if (bytes.length > this.buffer.length) {
+                    this.output.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, this.buffer, this.position, bytes.length);
+            this.position += bytes.length;
+        }
+
+        private void writeVarInt(int value) throws IOException {
+            if (this.buffer.length - this.position < 5) {
+                this.flush();
+            }
+            while ((value & ~0x7f) != 0) {
+                this.buffer[this.position++] = (byte)((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            this.buffer[this.position++] = (byte)value;
+        }
+
+        private void flush() throws IOException {
+            this.output.write(this.buffer, 0, this.position);
+            this.position = 0;
+        }
+
+    }
+
+}
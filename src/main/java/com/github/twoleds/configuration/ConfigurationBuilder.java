@@ -1,20 +1,91 @@
 package com.github.twoleds.configuration;
 
 import java.io.*;
+import java.nio.channels.WritableByteChannel;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
 public class ConfigurationBuilder implements Closeable, Flushable {
 
-    private final Writer writer;
+    /**
+     * A style of the output of the builder.
+     */
+    public enum Style {
+
+        /**
+         * Every value and section on its own line indented by tabs.
+         */
+        PRETTY,
+
+        /**
+         * All values and sections on a single line without indentation and
+         * with minimal separators. Comments and empty lines are omitted.
+         */
+        COMPACT,
+
+        /**
+         * The compact style where sections with an empty value are always
+         * written without the value. Together with the stable ordering of
+         * {@link Configuration#writeTo(ConfigurationBuilder)} equal
+         * configurations produce identical output.
+         */
+        CANONICAL
+
+    }
+
+    private static final boolean[] safeCharacters = ConfigurationBuilder.createSafeCharacters();
+    private static final String[] escapeSequences = ConfigurationBuilder.createEscapeSequences();
+
+    private final ConfigurationOutput writer;
+    private final Style style;
     private int level;
 
     public ConfigurationBuilder(Writer writer) throws IOException {
-        this.writer = new BufferedWriter(writer);
+        this(new ConfigurationOutput.WriterOutput(writer), Style.PRETTY);
+    }
+
+    public ConfigurationBuilder(Writer writer, Style style) throws IOException {
+        this(new ConfigurationOutput.WriterOutput(writer), style);
+    }
+
+    /**
+     * It creates a builder which encodes the configuration directly to UTF-8
+     * bytes of the specified stream, without any intermediate writer.
+     */
+    public ConfigurationBuilder(OutputStream stream) throws IOException {
+        this(new ConfigurationOutput.Utf8Output(stream), Style.PRETTY);
+    }
+
+    public ConfigurationBuilder(OutputStream stream, Style style) throws IOException {
+        this(new ConfigurationOutput.Utf8Output(stream), style);
+    }
+
+    /**
+     * It creates a builder which encodes the configuration directly to UTF-8
+     * bytes of the specified channel, without any intermediate writer.
+     */
+    public ConfigurationBuilder(WritableByteChannel channel) throws IOException {
+        this(new ConfigurationOutput.Utf8Output(channel), Style.PRETTY);
+    }
+
+    public ConfigurationBuilder(WritableByteChannel channel, Style style) throws IOException {
+        this(new ConfigurationOutput.Utf8Output(channel), style);
+    }
+
+    private ConfigurationBuilder(ConfigurationOutput writer, Style style) {
+        this.writer = writer;
+        this.style = style;
         this.level = 0;
     }
 
+    public Style getStyle() {
+        return this.style;
+    }
+
     public ConfigurationBuilder writeComment(String comment) throws IOException {
+        if (this.style != Style.PRETTY) {
+            return this;
+        }
         if (comment.indexOf('\n') >= 0) {
             for (String commentLine : comment.split("\r?\n")) {
                 this.writeComment(commentLine);
@@ -41,7 +112,7 @@ public class ConfigurationBuilder implements Closeable, Flushable {
     }
 
     public ConfigurationBuilder writeValue(String name, byte value) throws IOException {
-        return this.writeValue(name, Byte.toString(value));
+        return this.indent().name(name).space().number(value).semicolon().newLine();
     }
 
     public ConfigurationBuilder writeValue(String name, char value) throws IOException {
@@ -57,15 +128,15 @@ public class ConfigurationBuilder implements Closeable, Flushable {
     }
 
     public ConfigurationBuilder writeValue(String name, int value) throws IOException {
-        return this.writeValue(name, Integer.toString(value));
+        return this.indent().name(name).space().number(value).semicolon().newLine();
     }
 
     public ConfigurationBuilder writeValue(String name, long value) throws IOException {
-        return this.writeValue(name, Long.toString(value));
+        return this.indent().name(name).space().number(value).semicolon().newLine();
     }
 
     public ConfigurationBuilder writeValue(String name, short value) throws IOException {
-        return this.writeValue(name, Short.toString(value));
+        return this.indent().name(name).space().number(value).semicolon().newLine();
     }
 
     public ConfigurationBuilder writeValue(String name, String value) throws IOException {
@@ -73,7 +144,7 @@ public class ConfigurationBuilder implements Closeable, Flushable {
     }
 
     public ConfigurationBuilder startSection(String name) throws IOException {
-        return this.indent().name(name).space().openBracket().newLine();
+        return this.indent().name(name).space().openBracket().newLine().levelUp();
     }
 
     public ConfigurationBuilder startSection(String name, boolean value) throws IOException {
@@ -81,7 +152,7 @@ public class ConfigurationBuilder implements Closeable, Flushable {
     }
 
     public ConfigurationBuilder startSection(String name, byte value) throws IOException {
-        return this.startSection(name, Byte.toString(value));
+        return this.indent().name(name).space().number(value).separator().openBracket().newLine().levelUp();
     }
 
     public ConfigurationBuilder startSection(String name, char value) throws IOException {
@@ -97,19 +168,22 @@ public class ConfigurationBuilder implements Closeable, Flushable {
     }
 
     public ConfigurationBuilder startSection(String name, int value) throws IOException {
-        return this.startSection(name, Integer.toString(value));
+        return this.indent().name(name).space().number(value).separator().openBracket().newLine().levelUp();
     }
 
     public ConfigurationBuilder startSection(String name, long value) throws IOException {
-        return this.startSection(name, Long.toString(value));
+        return this.indent().name(name).space().number(value).separator().openBracket().newLine().levelUp();
     }
 
     public ConfigurationBuilder startSection(String name, short value) throws IOException {
-        return this.startSection(name, Short.toString(value));
+        return this.indent().name(name).space().number(value).separator().openBracket().newLine().levelUp();
     }
 
     public ConfigurationBuilder startSection(String name, String value) throws IOException {
-        return this.indent().name(name).space().value(value).space().openBracket().newLine().levelUp();
+        if (this.style == Style.CANONICAL && value.isEmpty()) {
+            return this.startSection(name);
+        }
+        return this.indent().name(name).space().value(value).separator().openBracket().newLine().levelUp();
     }
 
     public ConfigurationBuilder closeSection() throws IOException {
@@ -132,8 +206,8 @@ public class ConfigurationBuilder implements Closeable, Flushable {
     }
 
     private ConfigurationBuilder indent() throws IOException {
-        for (int i = 0; i < this.level; i++) {
-            this.writer.write('\t');
+        if (this.style == Style.PRETTY) {
+            this.writer.writeTabs(this.level);
         }
         return this;
     }
@@ -156,8 +230,15 @@ public class ConfigurationBuilder implements Closeable, Flushable {
         return this;
     }
 
+    private ConfigurationBuilder number(long value) throws IOException {
+        this.writer.writeLong(value);
+        return this;
+    }
+
     private ConfigurationBuilder newLine() throws IOException {
-        this.writer.write('\n');
+        if (this.style == Style.PRETTY) {
+            this.writer.write('\n');
+        }
         return this;
     }
 
@@ -171,6 +252,17 @@ public class ConfigurationBuilder implements Closeable, Flushable {
         return this;
     }
 
+    /**
+     * It writes a space between a value and a bracket, which is optional
+     * in the compact styles.
+     */
+    private ConfigurationBuilder separator() throws IOException {
+        if (this.style == Style.PRETTY) {
+            this.writer.write(' ');
+        }
+        return this;
+    }
+
     private ConfigurationBuilder space() throws IOException {
         this.writer.write(' ');
         return this;
@@ -181,38 +273,16 @@ public class ConfigurationBuilder implements Closeable, Flushable {
             this.writer.write(value);
         } else {
             this.writer.write('"');
+            int start = 0;
             for (int i = 0, l = value.length(); i < l; i++) {
                 char c = value.charAt(i);
-                switch (c) {
-                    case '\0':
-                        this.writer.write("\\0");
-                        break;
-                    case '\b':
-                        this.writer.write("\\b");
-                        break;
-                    case '\f':
-                        this.writer.write("\\f");
-                        break;
-                    case '\r':
-                        this.writer.write("\\r");
-                        break;
-                    case '\n':
-                        this.writer.write("\\n");
-                        break;
-                    case '\t':
-                        this.writer.write("\\t");
-                        break;
-                    case '\\':
-                        this.writer.write("\\\\");
-                        break;
-                    case '\"':
-                        this.writer.write("\\\"");
-                        break;
-                    default:
-                        this.writer.write(c);
-                        break;
+                if (c < escapeSequences.length && escapeSequences[c] != null) {
+                    this.writer.write(value, start, i);
+                    this.writer.write(escapeSequences[c]);
+                    start = i + 1;
                 }
             }
+            this.writer.write(value, start, value.length());
             this.writer.write('"');
         }
         return this;
@@ -233,13 +303,35 @@ public class ConfigurationBuilder implements Closeable, Flushable {
     private boolean isValueSafe(String value) {
         for (int i = 0, l = value.length(); i < l; i++) {
             char c = value.charAt(i);
-            if ((c >= 'a') && (c <= 'z')) continue;
-            if ((c >= 'A') && (c <= 'Z')) continue;
-            if ((c >= '0') && (c <= '9')) continue;
-            if ((c == '-') || (c == '.') || (c == '_')) continue;
-            return false;
+            if (c >= safeCharacters.length || !safeCharacters[c]) {
+                return false;
+            }
         }
         return value.length() > 0;
     }
 
+    private static boolean[] createSafeCharacters() {
+        boolean[] table = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++) table[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) table[c] = true;
+        for (char c = '0'; c <= '9'; c++) table[c] = true;
+        table['-'] = true;
+        table['.'] = true;
+        table['_'] = true;
+        return table;
+    }
+
+    private static String[] createEscapeSequences() {
+        String[] table = new String[128];
+        table['\0'] = "\\0";
+        table['\b'] = "\\b";
+        table['\f'] = "\\f";
+        table['\r'] = "\\r";
+        table['\n'] = "\\n";
+        table['\t'] = "\\t";
+        table['\\'] = "\\\\";
+        table['"'] = "\\\"";
+        return table;
+    }
+
 }
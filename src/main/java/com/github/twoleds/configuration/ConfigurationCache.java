@@ -0,0 +1,240 @@
+package com.github.twoleds.configuration;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An optional on-disk cache of parsed configuration files. When the cache is
+ * enabled, {@link Configuration#parse(java.io.File)} and
+ * {@link Configuration#parse(Path)} store every parsed file in the cache
+ * directory in the binary form together with a SHA-256 hash of its content.
+ * If the content of the file and all files included by the file don't
+ * change, next parsing of the file reads the binary form instead of parsing
+ * the text. A changed file is parsed again and its cache entry is replaced
+ * atomically.
+ * <p>
+ * The binary form in an entry is followed by its length and its SHA-256
+ * checksum, which is verified before the binary form is decoded. A damaged
+ * entry is treated as a miss and it's deleted.
+ * <p>
+ * The cache is disabled by default, it can be enabled by the system property
+ * <code>com.github.twoleds.configuration.cache</code> with a path of the cache
+ * directory or by the method {@link #setDirectory(Path)}.
+ */
+public class ConfigurationCache {
+
+    public static final String DIRECTORY_PROPERTY = "com.github.twoleds.configuration.cache";
+
+    private static final int MAGIC = 0x544c4343;
+    private static final int VERSION = 2;
+
+    private static volatile Path directory = ConfigurationCache.initialDirectory();
+
+    private ConfigurationCache() {
+    }
+
+    /**
+     * It returns the cache directory or the <code>null</code> value if the
+     * cache is disabled.
+     */
+    public static Path getDirectory() {
+        return ConfigurationCache.directory;
+    }
+
+    /**
+     * It sets the cache directory, the <code>null</code> value disables the
+     * cache. The directory is created when the first entry is stored.
+     */
+    public static void setDirectory(Path directory) {
+        ConfigurationCache.directory = directory;
+    }
+
+    /**
+     * It parses the specified file. If the specified cache directory contains
+     * an up-to-date entry of the file, the configuration is read from the
+     * cache.
+     */
+    /* package */ static Configuration parse(Path file, Path directory) throws ConfigurationException {
+
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+
+        byte[] hash = ConfigurationBinary.hash(content);
+        Path entry = directory.resolve(
+                ConfigurationCache.toHex(ConfigurationBinary.hash(
+                        file.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8)
+                )) + ".bin"
+        );
+
+        Configuration configuration = ConfigurationCache.read(entry, hash);
+        if (configuration != null) {
+            return configuration;
+        }
+
+        List<ConfigurationIncludeCache.Stamp> dependencies;
+        try (ConfigurationParser parser = new ConfigurationParser(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8), file
+        )) {
+            configuration = parser.parse();
+            dependencies = parser.getDependencies();
+        }
+
+        ConfigurationCache.write(entry, hash, dependencies, configuration);
+        return configuration;
+
+    }
+
+    /**
+     * It reads the cache entry. If the entry doesn't exist, it's damaged or
+     * it's not up-to-date it returns the <code>null</code> value. A damaged
+     * entry is deleted.
+     */
+    private static Configuration read(Path entry, byte[] hash) {
+
+        byte[] data;
+        try {
+            data = Files.readAllBytes(entry);
+        } catch (IOException e) {
+            return null;
+        }
+
+        try {
+
+            ByteArrayInputStream input = new ByteArrayInputStream(data);
+            DataInputStream in = new DataInputStream(input);
+            if (in.readInt() != MAGIC) {
+                ConfigurationCache.delete(entry);
+                return null;
+            }
+            if (in.readInt() != VERSION) {
+                return null;
+            }
+
+            byte[] entryHash = new byte[hash.length];
+            in.readFully(entryHash);
+            if (!Arrays.equals(hash, entryHash)) {
+                return null;
+            }
+
+            for (int i = in.readInt(); i > 0; i--) {
+                ConfigurationIncludeCache.Stamp stamp = new ConfigurationIncludeCache.Stamp(
+                        Paths.get(in.readUTF()), FileTime.from(in.readLong(), TimeUnit.NANOSECONDS), in.readLong()
+                );
+                if (!stamp.isValid()) {
+                    return null;
+                }
+            }
+
+            int length = in.readInt();
+            byte[] checksum = new byte[hash.length];
+            in.readFully(checksum);
+            if (length != input.available()) {
+                ConfigurationCache.delete(entry);
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            if (!Arrays.equals(checksum, ConfigurationBinary.hash(payload))) {
+                ConfigurationCache.delete(entry);
+                return null;
+            }
+
+            return ConfigurationBinary.read(new ByteArrayInputStream(payload));
+
+        } catch (IOException | ConfigurationException | RuntimeException e) {
+            // the entry is damaged, errors of the JVM are not hidden
+            ConfigurationCache.delete(entry);
+            return null;
+        }
+
+    }
+
+    /**
+     * It writes the cache entry to a temporary file and then it moves the
+     * file over the previous entry, so readers never see a partial entry.
+     * Errors are ignored, because the cache is only an optimization.
+     */
+    private static void write(Path entry, byte[] hash, List<ConfigurationIncludeCache.Stamp> stamps, Configuration configuration) {
+        Path temporary = null;
+        try {
+
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(data);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.write(hash);
+            out.writeInt(stamps.size());
+            for (ConfigurationIncludeCache.Stamp stamp : stamps) {
+                out.writeUTF(stamp.getPath().toString());
+                out.writeLong(stamp.getModified().to(TimeUnit.NANOSECONDS));
+                out.writeLong(stamp.getSize());
+            }
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            configuration.writeBinary(payload);
+            out.writeInt(payload.size());
+            out.write(ConfigurationBinary.hash(payload.toByteArray()));
+            payload.writeTo(out);
+            out.flush();
+
+            Files.createDirectories(entry.getParent());
+            temporary = Files.createTempFile(entry.getParent(), "entry.", ".tmp");
+            try (OutputStream output = Files.newOutputStream(temporary)) {
+                data.writeTo(output);
+            }
+            Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temporary = null;
+
+        } catch (IOException | RuntimeException e) {
+            // the configuration is returned even if it cannot be cached
+        } finally {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException e) {
+                    // nothing to do
+                }
+            }
+        }
+    }
+
+    private static void delete(Path entry) {
+        try {
+            Files.deleteIfExists(entry);
+        } catch (IOException e) {
+            // the entry is replaced by the next write
+        }
+    }
+
+    private static String toHex(byte[] data) {
+        StringBuilder builder = new StringBuilder(data.length * 2);
+        for (byte b : data) {
+            builder.append(Character.forDigit((b >> 4) & 0xf, 16));
+            builder.append(Character.forDigit(b & 0xf, 16));
+        }
+        return builder.toString();
+    }
+
+    private static Path initialDirectory() {
+        String directory = System.getProperty(DIRECTORY_PROPERTY);
+        return directory != null && !directory.isEmpty() ? Paths.get(directory) : null;
+    }
+
+}
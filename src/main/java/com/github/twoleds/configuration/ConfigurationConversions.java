@@ -0,0 +1,57 @@
+package com.github.twoleds.configuration;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Converted values of a tree which creates configuration objects on demand,
+ * like {@link MappedConfiguration} and {@link CompactConfiguration}. Every
+ * lookup in such a tree returns a new configuration object, so converted
+ * values are cached by the tree in an array indexed by nodes for every
+ * converter.
+ * <p>
+ * An array is allocated when a converter is used for the first time and it's
+ * retained as long as the tree, so the cache costs one reference per node
+ * for each of at most {@link #MAX_CONVERTERS} converters, plus the converted
+ * values. Results of other converters are not cached.
+ */
+/* package */ class ConfigurationConversions {
+
+    /* package */ static final int MAX_CONVERTERS = 8;
+
+    private static final Object NULL = new Object();
+
+    private final int size;
+    private final ConcurrentMap<Function<Configuration, ?>, AtomicReferenceArray<Object>> values = new ConcurrentHashMap<>();
+
+    /* package */ ConfigurationConversions(int size) {
+        this.size = size;
+    }
+
+    /**
+     * It returns the cached value of the node or it converts the specified
+     * configuration of the node and caches the result.
+     */
+    @SuppressWarnings("unchecked")
+    /* package */ <T> T convert(Configuration configuration, int node, Function<Configuration, T> converter) {
+        AtomicReferenceArray<Object> values = this.values.get(converter);
+        if (values == null) {
+            if (this.values.size() >= MAX_CONVERTERS) {
+                return converter.apply(configuration);
+            }
+            values = this.values.computeIfAbsent(converter, key -> new AtomicReferenceArray<>(this.size));
+        }
+        Object value = values.get(node);
+        if (value == null) {
+            T converted = converter.apply(configuration);
+            if (values.compareAndSet(node, null, converted != null ? converted : NULL)) {
+                return converted;
+            }
+            value = values.get(node);
+        }
+        return value == NULL ? null : (T)value;
+    }
+
+}
@@ -0,0 +1,272 @@
+package com.github.twoleds.configuration;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A registry of converters of configuration values to Java types, which
+ * are used by {@link Configuration#getAs(String, Class)}. The registry
+ * contains converters of primitive wrappers, strings, durations, socket
+ * addresses and enums, other types can be registered by
+ * {@link #register(Class, Function)}.
+ * <p>
+ * Results of the built-in converters and of converters registered as cached
+ * by {@link #register(Class, Function, boolean)} are cached by the converted
+ * node, so a value is converted to a type only once. Cached results are
+ * shared by all callers, so such converters must be pure functions of the
+ * value and they must return immutable objects. Results of other converters
+ * are never cached.
+ * <p>
+ * Durations are written as numbers with units <code>ns</code>,
+ * <code>us</code>, <code>ms</code>, <code>s</code>, <code>m</code>,
+ * <code>h</code> and <code>d</code>, for example <code>30s</code> or
+ * <code>1h30m</code>, a number without any unit is in milliseconds. Sizes
+ * are written as numbers with units <code>B</code>, <code>K</code>,
+ * <code>M</code>, <code>G</code> and <code>T</code>, optionally followed by
+ * <code>B</code> or <code>iB</code>, all of them are powers of 1024, for
+ * example <code>10MB</code>. Percentages are written as quoted values like
+ * <code>"75%"</code> or as fractions like <code>0.75</code>. Socket addresses are written as
+ * <code>host:port</code> or <code>[ipv6]:port</code>.
+ */
+public class ConfigurationConverters {
+
+    /* package */ static final Function<Configuration, Long> SIZE =
+            configuration -> ConfigurationConverters.parseSize(configuration.getValue());
+    /* package */ static final Function<Configuration, Double> PERCENTAGE =
+            configuration -> ConfigurationConverters.parsePercentage(configuration.getValue());
+
+    private static final String[] DURATION_UNITS = {"ns", "us", "ms", "s", "m", "h", "d"};
+    private static final long[] DURATION_NANOS = {1L, 1000L, 1000000L, 1000000000L, 60000000000L, 3600000000000L, 86400000000000L};
+
+    private static final ConcurrentMap<Class<?>, Function<Configuration, ?>> converters = new ConcurrentHashMap<>();
+    private static final Set<Function<Configuration, ?>> cached = ConcurrentHashMap.newKeySet();
+
+    static {
+        ConfigurationConverters.cached.add(SIZE);
+        ConfigurationConverters.cached.add(PERCENTAGE);
+        ConfigurationConverters.register(String.class, Configuration::getString, true);
+        ConfigurationConverters.register(Boolean.class, Configuration::getBoolean, true);
+        ConfigurationConverters.register(Byte.class, Configuration::getByte, true);
+        ConfigurationConverters.register(Character.class, Configuration::getCharacter, true);
+        ConfigurationConverters.register(Double.class, Configuration::getDouble, true);
+        ConfigurationConverters.register(Float.class, Configuration::getFloat, true);
+        ConfigurationConverters.register(Integer.class, Configuration::getInteger, true);
+        ConfigurationConverters.register(Long.class, Configuration::getLong, true);
+        ConfigurationConverters.register(Short.class, Configuration::getShort, true);
+        ConfigurationConverters.register(Duration.class, configuration -> ConfigurationConverters.parseDuration(configuration.getValue()), true);
+        ConfigurationConverters.register(InetSocketAddress.class, configuration -> ConfigurationConverters.parseAddress(configuration.getValue()), true);
+    }
+
+    private ConfigurationConverters() {
+    }
+
+    /**
+     * It registers a converter of the specified type, a previous converter
+     * of the type is replaced. Results of the converter are not cached.
+     */
+    public static <T> void register(Class<T> type, Function<Configuration, T> converter) {
+        ConfigurationConverters.register(type, converter, false);
+    }
+
+    /**
+     * It registers a converter of the specified type, a previous converter
+     * of the type is replaced. If the converter is cached, its results are
+     * cached by converted nodes and shared, so they must be immutable.
+     */
+    public static <T> void register(Class<T> type, Function<Configuration, T> converter, boolean cached) {
+        if (cached) {
+            ConfigurationConverters.cached.add(converter);
+        }
+        Function<Configuration, ?> previous = ConfigurationConverters.converters.put(type, converter);
+        if (previous != null && previous != converter) {
+            ConfigurationConverters.cached.remove(previous);
+        }
+    }
+
+    /**
+     * It returns true if results of the converter may be cached.
+     */
+    /* package */ static boolean isCached(Function<Configuration, ?> converter) {
+        return ConfigurationConverters.cached.contains(converter);
+    }
+
+    /**
+     * It returns a converter of the specified type. Converters of enums are
+     * created on demand.
+     *
+     * @throws IllegalArgumentException If there is no converter of the type.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Function<Configuration, T> get(Class<T> type) {
+        Function<Configuration, ?> converter = ConfigurationConverters.converters.get(type);
+        if (converter == null) {
+            if (!type.isEnum()) {
+                throw new IllegalArgumentException(String.format("There is no converter of the type \"%s\".", type.getName()));
+            }
+            converter = ConfigurationConverters.converters.computeIfAbsent(type, ConfigurationConverters::createEnumConverter);
+        }
+        return (Function<Configuration, T>)converter;
+    }
+
+    /**
+     * It parses a duration like <code>30s</code> or <code>1h30m</code>.
+     *
+     * @throws NumberFormatException If the duration is not valid.
+     */
+    public static Duration parseDuration(String value) {
+        int length = value.length();
+        if (length == 0) {
+            throw new NumberFormatException("An empty duration.");
+        }
+        long nanos = 0;
+        int index = 0;
+        while (index < length) {
+            int start = index;
+            long number = 0;
+            while (index < length && value.charAt(index) >= '0' && value.charAt(index) <= '9') {
+                if (number > (Long.MAX_VALUE - 9) / 10) {
+                    throw new NumberFormatException(String.format("A duration \"%s\" is too long.", value));
+                }
+                number = number * 10 + (value.charAt(index++) - '0');
+            }
+            int unitStart = index;
+            while (index < length && (value.charAt(index) < '0' || value.charAt(index) > '9')) {
+                index++;
+            }
+            if (unitStart == start) {
+                throw new NumberFormatException(String.format("An invalid duration \"%s\".", value));
+            }
+            long unit;
+            if (unitStart == index) {
+                if (start != 0) {
+                    throw new NumberFormatException(String.format("An invalid duration \"%s\".", value));
+                }
+                unit = 1000000L;
+            } else {
+                unit = ConfigurationConverters.durationUnit(value, unitStart, index);
+            }
+            try {
+                nanos = Math.addExact(nanos, Math.multiplyExact(number, unit));
+            } catch (ArithmeticException e) {
+                throw new NumberFormatException(String.format("A duration \"%s\" is too long.", value));
+            }
+        }
+        return Duration.ofNanos(nanos);
+    }
+
+    /**
+     * It parses a size like <code>10MB</code> and returns it in bytes.
+     *
+     * @throws NumberFormatException If the size is not valid.
+     */
+    public static long parseSize(String value) {
+        int length = value.length();
+        int index = 0;
+        long number = 0;
+        while (index < length && value.charAt(index) >= '0' && value.charAt(index) <= '9') {
+            if (number > (Long.MAX_VALUE - 9) / 10) {
+                throw new NumberFormatException(String.format("A size \"%s\" is too large.", value));
+            }
+            number = number * 10 + (value.charAt(index++) - '0');
+        }
+        if (index == 0) {
+            throw new NumberFormatException(String.format("An invalid size \"%s\".", value));
+        }
+        int shift;
+        switch (index < length ? Character.toUpperCase(value.charAt(index)) : 'B') {
+            case 'B':
+                shift = 0;
+                break;
+            case 'K':
+                shift = 10;
+                break;
+            case 'M':
+                shift = 20;
+                break;
+            case 'G':
+                shift = 30;
+                break;
+            case 'T':
+                shift = 40;
+                break;
+            default:
+                throw new NumberFormatException(String.format("An invalid size \"%s\".", value));
+        }
+        int suffix = length - index;
+        boolean valid = suffix <= 1
+                || (shift > 0 && suffix == 2 && Character.toUpperCase(value.charAt(index + 1)) == 'B')
+                || (shift > 0 && suffix == 3 && value.charAt(index + 1) == 'i' && Character.toUpperCase(value.charAt(index + 2)) == 'B');
+        if (!valid) {
+            throw new NumberFormatException(String.format("An invalid size \"%s\".", value));
+        }
+        if (number > Long.MAX_VALUE >> shift) {
+            throw new NumberFormatException(String.format("A size \"%s\" is too large.", value));
+        }
+        return number << shift;
+    }
+
+    /**
+     * It parses a percentage like <code>75%</code> or a fraction like
+     * <code>0.75</code> and returns it as a fraction.
+     *
+     * @throws NumberFormatException If the percentage is not valid.
+     */
+    public static double parsePercentage(String value) {
+        int length = value.length();
+        if (length > 0 && value.charAt(length - 1) == '%') {
+            return Double.parseDouble(value.substring(0, length - 1)) / 100.0;
+        }
+        return Double.parseDouble(value);
+    }
+
+    /**
+     * It parses an address like <code>localhost:8080</code> or
+     * <code>[::1]:8080</code>. A host name is resolved when the address is
+     * created.
+     *
+     * @throws IllegalArgumentException If the address is not valid.
+     */
+    public static InetSocketAddress parseAddress(String value) {
+        int index = value.lastIndexOf(':');
+        if (index <= 0 || index == value.length() - 1) {
+            throw new IllegalArgumentException(String.format("An invalid address \"%s\".", value));
+        }
+        String host = value.substring(0, index);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        } else if (host.indexOf(':') >= 0) {
+            throw new IllegalArgumentException(String.format("An invalid address \"%s\".", value));
+        }
+        return new InetSocketAddress(host, Integer.parseInt(value.substring(index + 1)));
+    }
+
+    private static long durationUnit(String value, int start, int end) {
+        for (int i = 0; i < DURATION_UNITS.length; i++) {
+            String unit = DURATION_UNITS[i];
+            if (unit.length() == end - start && value.regionMatches(start, unit, 0, unit.length())) {
+                return DURATION_NANOS[i];
+            }
+        }
+        throw new NumberFormatException(String.format("An invalid duration \"%s\".", value));
+    }
+
+    private static Function<Configuration, ?> createEnumConverter(Class<?> type) {
+        Enum<?>[] constants = (Enum<?>[])type.getEnumConstants();
+        Function<Configuration, ?> converter = configuration -> {
+            String value = configuration.getValue();
+            for (Enum<?> constant : constants) {
+                if (constant.name().equalsIgnoreCase(value)) {
+                    return constant;
+                }
+            }
+            throw new IllegalArgumentException(String.format("An invalid value \"%s\" of the enum \"%s\".", value, type.getName()));
+        };
+        ConfigurationConverters.cached.add(converter);
+        return converter;
+    }
+
+}
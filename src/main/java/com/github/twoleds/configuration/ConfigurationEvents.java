@@ -0,0 +1,105 @@
+package com.github.twoleds.configuration;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder events of the library. This class is loaded only if
+ * the Flight Recorder is available, see {@link ConfigurationInstrumentation}.
+ */
+/* package */ class ConfigurationEvents {
+
+    private static final EventType parseType = EventType.getEventType(ParseEvent.class);
+    private static final EventType slowQueryType = EventType.getEventType(SlowQueryEvent.class);
+
+    private ConfigurationEvents() {
+    }
+
+    /**
+     * It begins a parse event, it returns the <code>null</code> value if the
+     * event is not enabled.
+     */
+    /* package */ static Object beginParse() {
+        if (!ConfigurationEvents.parseType.isEnabled()) {
+            return null;
+        }
+        ParseEvent event = new ParseEvent();
+        event.begin();
+        return event;
+    }
+
+    /* package */ static void commitParse(Object object, String source, long length, int nodes, int maxDepth, Throwable failure) {
+        ParseEvent event = (ParseEvent)object;
+        event.end();
+        if (event.shouldCommit()) {
+            event.source = source;
+            event.length = length;
+            event.nodes = nodes;
+            event.maxDepth = maxDepth;
+            event.failure = failure != null ? failure.getMessage() : null;
+            event.commit();
+        }
+    }
+
+    /* package */ static void commitSlowQuery(String query, long time, boolean miss) {
+        if (ConfigurationEvents.slowQueryType.isEnabled()) {
+            SlowQueryEvent event = new SlowQueryEvent();
+            event.query = query;
+            event.lookupTime = time;
+            event.miss = miss;
+            event.commit();
+        }
+    }
+
+    @Name("com.github.twoleds.configuration.Parse")
+    @Label("Configuration Parse")
+    @Category("Configuration")
+    @Description("Parsing of a configuration")
+    /* package */ static class ParseEvent extends Event {
+
+        @Label("Source")
+        @Description("A path or a URL of the configuration")
+        /* package */ String source;
+
+        @Label("Length")
+        @Description("The number of parsed characters")
+        /* package */ long length;
+
+        @Label("Nodes")
+        @Description("The number of parsed values and sections")
+        /* package */ int nodes;
+
+        @Label("Max Depth")
+        /* package */ int maxDepth;
+
+        @Label("Failure")
+        @Description("A message of the error, if the parsing failed")
+        /* package */ String failure;
+
+    }
+
+    @Name("com.github.twoleds.configuration.SlowQuery")
+    @Label("Slow Configuration Query")
+    @Category("Configuration")
+    @Description("A lookup of a query which took longer than the threshold of the profiler")
+    /* package */ static class SlowQueryEvent extends Event {
+
+        @Label("Query")
+        /* package */ String query;
+
+        @Label("Lookup Time")
+        @Timespan(Timespan.NANOSECONDS)
+        /* package */ long lookupTime;
+
+        @Label("Miss")
+        @Description("The query didn't find any value")
+        /* package */ boolean miss;
+
+    }
+
+}
@@ -0,0 +1,285 @@
+package com.github.twoleds.configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * An estimated memory footprint of a configuration tree, see
+ * {@link Configuration#footprint()}. Sizes are estimated for a 64-bit JVM
+ * with compressed references and compact strings, so they don't have to be
+ * exact, but they are good enough to compare configurations and to see where
+ * interning of strings or a compact form would pay off. Lists of children
+ * are assumed to grow from the default capacity, so their sizes and the list
+ * slack are upper-bound estimates.
+ * <p>
+ * Strings shared by several nodes are counted only once. The retained size
+ * of a section contains the section with all its nodes, their lists of
+ * children and all strings referenced by the section.
+ */
+public class ConfigurationFootprint {
+
+    /* package */ static final int PARALLEL_THRESHOLD = 64;
+
+    private static final int HEADER = 12;
+    private static final int REFERENCE = 4;
+    private static final int CONFIGURATION = ConfigurationFootprint.align(HEADER + 4 * REFERENCE);
+    private static final int STRING = ConfigurationFootprint.align(HEADER + REFERENCE + 4 + 2);
+    private static final int ARRAY_LIST = ConfigurationFootprint.align(HEADER + 4 + 4 + REFERENCE);
+    private static final int ARRAY = 16;
+
+    private final long nodes;
+    private final long leaves;
+    private final long stringBytes;
+    private final long distinctStringBytes;
+    private final long listSlack;
+    private final long retainedSize;
+    private final List<Section> sections;
+
+    private ConfigurationFootprint(long nodes, long leaves, long stringBytes, long distinctStringBytes,
+                                   long listSlack, long retainedSize, List<Section> sections) {
+        this.nodes = nodes;
+        this.leaves = leaves;
+        this.stringBytes = stringBytes;
+        this.distinctStringBytes = distinctStringBytes;
+        this.listSlack = listSlack;
+        this.retainedSize = retainedSize;
+        this.sections = sections;
+    }
+
+    /* package */ static ConfigurationFootprint of(Configuration configuration) {
+
+        List<Configuration> children = configuration.getChildren();
+        if (children == null) {
+            children = Collections.emptyList();
+        }
+
+        List<Walk> walks = children.size() >= PARALLEL_THRESHOLD
+                ? children.parallelStream().map(Walk::of).collect(Collectors.toList())
+                : children.stream().map(Walk::of).collect(Collectors.toList());
+
+        Walk root = new Walk();
+        root.visitNode(configuration);
+        List<Section> sections = new ArrayList<>(walks.size());
+        for (int i = 0; i < walks.size(); i++) {
+            Walk walk = walks.get(i);
+            sections.add(new Section(children.get(i).getName(), children.get(i).getValue(), walk.retainedSize()));
+            root.merge(walk);
+        }
+
+        return new ConfigurationFootprint(
+                root.nodes, root.leaves, root.stringBytes(), root.distinctStringBytes(),
+                root.listSlack, root.retainedSize(), Collections.unmodifiableList(sections)
+        );
+
+    }
+
+    /**
+     * It returns the number of all nodes including the root.
+     */
+    public long getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * It returns the number of values, nodes without children.
+     */
+    public long getLeaves() {
+        return this.leaves;
+    }
+
+    /**
+     * It returns the size of all string objects of names and values.
+     */
+    public long getStringBytes() {
+        return this.stringBytes;
+    }
+
+    /**
+     * It returns the size of string objects if all equal strings were
+     * shared, the difference to {@link #getStringBytes()} is a saving of
+     * interning.
+     */
+    public long getDistinctStringBytes() {
+        return this.distinctStringBytes;
+    }
+
+    /**
+     * It returns an upper-bound estimate of unused capacity of lists of
+     * children. The capacity of a list cannot be read, so every list is
+     * assumed to grow from the default capacity, lists created with an exact
+     * capacity have less slack.
+     */
+    public long getListSlack() {
+        return this.listSlack;
+    }
+
+    /**
+     * It returns the estimated size of the whole tree.
+     */
+    public long getRetainedSize() {
+        return this.retainedSize;
+    }
+
+    /**
+     * It returns the estimated retained size of every top-level entry, in
+     * the order of the configuration.
+     */
+    public List<Section> getSections() {
+        return this.sections;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+                "nodes %d, leaves %d, strings %d B (%d B distinct), list slack at most %d B, retained %d B",
+                this.nodes, this.leaves, this.stringBytes, this.distinctStringBytes, this.listSlack, this.retainedSize
+        );
+    }
+
+    private static int align(long size) {
+        return (int)((size + 7) & ~7L);
+    }
+
+    private static long sizeOf(String string) {
+        boolean latin1 = true;
+        for (int i = 0, l = string.length(); i < l && latin1; i++) {
+            latin1 = string.charAt(i) <= 0xff;
+        }
+        return STRING + ConfigurationFootprint.align(ARRAY + (long)string.length() * (latin1 ? 1 : 2));
+    }
+
+    /**
+     * It estimates the capacity of an array list grown by adding elements one
+     * by one, starting with the default capacity of ten elements. It's the
+     * largest capacity of a list grown by adding elements or created with
+     * its size, so the estimate is an upper bound.
+     */
+    private static long capacityOf(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        long capacity = 10;
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * A retained size of a top-level entry.
+     */
+    public static final class Section {
+
+        private final String name;
+        private final String value;
+        private final long retainedSize;
+
+        private Section(String name, String value, long retainedSize) {
+            this.name = name;
+            this.value = value;
+            this.retainedSize = retainedSize;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public String getValue() {
+            return this.value;
+        }
+
+        public long getRetainedSize() {
+            return this.retainedSize;
+        }
+
+    }
+
+    /**
+     * A walk of a sub-tree, which collects counters and strings of nodes.
+     */
+    private static class Walk {
+
+        private final Map<String, Boolean> strings = new IdentityHashMap<>();
+        private final Set<String> distinct = new HashSet<>();
+        private long nodes;
+        private long leaves;
+        private long objectBytes;
+        private long listSlack;
+
+        private static Walk of(Configuration configuration) {
+            Walk walk = new Walk();
+            List<Configuration> stack = new ArrayList<>();
+            stack.add(configuration);
+            while (!stack.isEmpty()) {
+                Configuration node = stack.remove(stack.size() - 1);
+                walk.visitNode(node);
+                List<Configuration> children = node.getChildren();
+                if (children != null) {
+                    stack.addAll(children);
+                }
+            }
+            return walk;
+        }
+
+        private void visitNode(Configuration node) {
+            this.nodes++;
+            this.objectBytes += CONFIGURATION;
+            this.visitString(node.getName());
+            this.visitString(node.getValue());
+            List<Configuration> children = node.getChildren();
+            if (children == null) {
+                this.leaves++;
+            } else if (children instanceof ArrayList) {
+                long capacity = ConfigurationFootprint.capacityOf(children.size());
+                this.objectBytes += ARRAY_LIST + (capacity > 0 ? ConfigurationFootprint.align(ARRAY + capacity * REFERENCE) : 0);
+                this.listSlack += (capacity - children.size()) * REFERENCE;
+            } else {
+                this.objectBytes += ConfigurationFootprint.align(HEADER + REFERENCE)
+                        + ConfigurationFootprint.align(ARRAY + (long)children.size() * REFERENCE);
+            }
+        }
+
+        private void visitString(String string) {
+            if (string != null && this.strings.put(string, Boolean.TRUE) == null) {
+                this.distinct.add(string);
+            }
+        }
+
+        private void merge(Walk walk) {
+            this.nodes += walk.nodes;
+            this.leaves += walk.leaves;
+            this.objectBytes += walk.objectBytes;
+            this.listSlack += walk.listSlack;
+            this.strings.putAll(walk.strings);
+            this.distinct.addAll(walk.distinct);
+        }
+
+        private long stringBytes() {
+            long size = 0;
+            for (String string : this.strings.keySet()) {
+                size += ConfigurationFootprint.sizeOf(string);
+            }
+            return size;
+        }
+
+        private long distinctStringBytes() {
+            long size = 0;
+            for (String string : this.distinct) {
+                size += ConfigurationFootprint.sizeOf(string);
+            }
+            return size;
+        }
+
+        private long retainedSize() {
+            return this.objectBytes + this.stringBytes();
+        }
+
+    }
+
+}
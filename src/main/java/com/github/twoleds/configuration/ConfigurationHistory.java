@@ -0,0 +1,336 @@
+package com.github.twoleds.configuration;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A history of versions of a reloadable configuration. Every committed
+ * configuration becomes a new snapshot with a version number and
+ * a timestamp, the history keeps the specified number of latest snapshots.
+ * <p>
+ * A committed configuration shares unchanged values and sections with the
+ * current snapshot: the k-th entry with a name is compared with the k-th
+ * entry with the same name of the current snapshot and equal entries are
+ * replaced by the entries of the current snapshot. So the history retains
+ * only the changed parts of every version, not every version as a whole.
+ * <p>
+ * Every snapshot remembers its parent, the snapshot which was current when
+ * it has been committed. A rollback returns to the parent, so after
+ * a rollback to an older version and a new commit, the rolled back versions
+ * are not returned to again by {@link #rollback()}. When the history is full,
+ * snapshots which are not ancestors of the current snapshot are removed
+ * first.
+ * <p>
+ * The current snapshot and the list of snapshots are swapped atomically,
+ * so a rollback to a previous snapshot is a single swap and readers see
+ * either the old or the new snapshot.
+ */
+public class ConfigurationHistory {
+
+    private final int capacity;
+    private final AtomicReference<State> state = new AtomicReference<>(new State(null, Collections.emptyList()));
+
+    /**
+     * It creates a history which keeps the specified number of latest
+     * snapshots.
+     */
+    public ConfigurationHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException();
+        }
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * It returns the current snapshot or the <code>null</code> value if
+     * nothing has been committed yet.
+     */
+    public Snapshot getCurrent() {
+        return this.state.get().current;
+    }
+
+    /**
+     * It returns the configuration of the current snapshot or the
+     * <code>null</code> value if nothing has been committed yet.
+     */
+    public Configuration getConfiguration() {
+        Snapshot current = this.state.get().current;
+        return current != null ? current.configuration : null;
+    }
+
+    /**
+     * It returns all kept snapshots ordered from the oldest one.
+     */
+    public List<Snapshot> getSnapshots() {
+        return this.state.get().snapshots;
+    }
+
+    /**
+     * It commits the specified configuration as a new current snapshot. If
+     * the history is full, the oldest snapshot which is not an ancestor of
+     * the new snapshot is removed, or the oldest ancestor if there is no
+     * such snapshot. The current snapshot is never removed.
+     */
+    public Snapshot commit(Configuration configuration) {
+        while (true) {
+
+            State state = this.state.get();
+            Configuration shared = state.current != null
+                    ? ConfigurationHistory.share(configuration, state.current.configuration)
+                    : configuration;
+            long version = state.snapshots.isEmpty() ? 1 : state.snapshots.get(state.snapshots.size() - 1).version + 1;
+            Snapshot snapshot = new Snapshot(version, state.current != null ? state.current.version : 0, Instant.now(), shared);
+
+            List<Snapshot> snapshots = new ArrayList<>(state.snapshots.size() + 1);
+            snapshots.addAll(state.snapshots);
+            snapshots.add(snapshot);
+            while (snapshots.size() > this.capacity) {
+                snapshots.remove(ConfigurationHistory.findEvicted(snapshots));
+            }
+
+            if (this.state.compareAndSet(state, new State(snapshot, Collections.unmodifiableList(snapshots)))) {
+                return snapshot;
+            }
+
+        }
+    }
+
+    /**
+     * It makes the parent of the current snapshot current and returns it.
+     * Newer snapshots are kept, so the rollback can be reverted by
+     * {@link #rollback(long)}.
+     *
+     * @throws IllegalStateException If the parent is not kept.
+     */
+    public Snapshot rollback() {
+        while (true) {
+            State state = this.state.get();
+            Snapshot snapshot = state.current != null ? ConfigurationHistory.find(state.snapshots, state.current.parent) : null;
+            if (snapshot == null) {
+                throw new IllegalStateException("There is no previous snapshot.");
+            }
+            if (this.state.compareAndSet(state, new State(snapshot, state.snapshots))) {
+                return snapshot;
+            }
+        }
+    }
+
+    /**
+     * It makes the snapshot with the specified version current and returns
+     * it.
+     *
+     * @throws IllegalArgumentException If the version is not kept.
+     */
+    public Snapshot rollback(long version) {
+        while (true) {
+            State state = this.state.get();
+            Snapshot snapshot = ConfigurationHistory.find(state.snapshots, version);
+            if (snapshot == null) {
+                throw new IllegalArgumentException(String.format("A version %d is not kept.", version));
+            }
+            if (this.state.compareAndSet(state, new State(snapshot, state.snapshots))) {
+                return snapshot;
+            }
+        }
+    }
+
+    private static Snapshot find(List<Snapshot> snapshots, long version) {
+        for (Snapshot snapshot : snapshots) {
+            if (snapshot.version == version) {
+                return snapshot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * It returns the index of the snapshot which should be removed from the
+     * full history, the last snapshot is the new current one.
+     */
+    private static int findEvicted(List<Snapshot> snapshots) {
+        Set<Long> ancestors = new HashSet<>();
+        Snapshot ancestor = snapshots.get(snapshots.size() - 1);
+        while (ancestor != null && ancestors.add(ancestor.version)) {
+            ancestor = ConfigurationHistory.find(snapshots, ancestor.parent);
+        }
+        for (int i = 0; i < snapshots.size() - 1; i++) {
+            if (!ancestors.contains(snapshots.get(i).version)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * It returns the configuration with unchanged entries replaced by the
+     * entries of the previous configuration. It returns the previous
+     * configuration itself if nothing has changed. Sections are walked by an
+     * explicit stack, so the depth of the configuration is not limited by
+     * the call stack.
+     */
+    private static Configuration share(Configuration configuration, Configuration previous) {
+
+        Configuration result = ConfigurationHistory.shareLeaf(configuration, previous);
+        if (result != null) {
+            return result;
+        }
+
+        List<Frame> stack = new ArrayList<>();
+        stack.add(new Frame(configuration, previous));
+        while (true) {
+            Frame frame = stack.get(stack.size() - 1);
+            if (frame.index < frame.children.size()) {
+                Configuration child = frame.children.get(frame.index);
+                Configuration candidate = frame.candidate(child);
+                Configuration shared = candidate != null ? ConfigurationHistory.shareLeaf(child, candidate) : child;
+                if (shared == null) {
+                    stack.add(new Frame(child, candidate));
+                } else {
+                    frame.add(shared);
+                }
+            } else {
+                stack.remove(stack.size() - 1);
+                Configuration shared = frame.result();
+                if (stack.isEmpty()) {
+                    return shared;
+                }
+                stack.get(stack.size() - 1).add(shared);
+            }
+        }
+
+    }
+
+    /**
+     * It shares an entry which doesn't need to be walked: an entry with
+     * another name or value, or a value. It returns the <code>null</code>
+     * value for two sections with the same name and value.
+     */
+    private static Configuration shareLeaf(Configuration configuration, Configuration previous) {
+        if (!configuration.getName().equals(previous.getName()) || !configuration.getValue().equals(previous.getValue())) {
+            return configuration;
+        }
+        List<Configuration> children = configuration.getChildren();
+        List<Configuration> previousChildren = previous.getChildren();
+        if (children == null || previousChildren == null) {
+            return children == null && previousChildren == null ? previous : configuration;
+        }
+        return null;
+    }
+
+    /**
+     * A section which is being shared, the k-th child with a name is matched
+     * with the k-th child with the same name of the previous section.
+     */
+    private static final class Frame {
+
+        private final Configuration configuration;
+        private final Configuration previous;
+        private final List<Configuration> children;
+        private final List<Configuration> previousChildren;
+        private final Map<String, List<Configuration>> byName = new HashMap<>();
+        private final Map<String, int[]> occurrences = new HashMap<>();
+        private final List<Configuration> shared;
+        private boolean unchanged;
+        private int index;
+
+        private Frame(Configuration configuration, Configuration previous) {
+            this.configuration = configuration;
+            this.previous = previous;
+            this.children = configuration.getChildren();
+            this.previousChildren = previous.getChildren();
+            for (Configuration child : this.previousChildren) {
+                this.byName.computeIfAbsent(child.getName(), name -> new ArrayList<>(1)).add(child);
+            }
+            this.shared = new ArrayList<>(this.children.size());
+            this.unchanged = this.children.size() == this.previousChildren.size();
+        }
+
+        private Configuration candidate(Configuration child) {
+            List<Configuration> candidates = this.byName.get(child.getName());
+            int occurrence = this.occurrences.computeIfAbsent(child.getName(), name -> new int[1])[0]++;
+            return candidates != null && occurrence < candidates.size() ? candidates.get(occurrence) : null;
+        }
+
+        private void add(Configuration shared) {
+            this.unchanged = this.unchanged && shared == this.previousChildren.get(this.index);
+            this.shared.add(shared);
+            this.index++;
+        }
+
+        private Configuration result() {
+            return this.unchanged
+                    ? this.previous
+                    : new Configuration(this.configuration.getName(), this.configuration.getValue(), this.shared);
+        }
+
+    }
+
+    /**
+     * A version of the configuration.
+     */
+    public static final class Snapshot {
+
+        private final long version;
+        private final long parent;
+        private final Instant timestamp;
+        private final Configuration configuration;
+
+        private Snapshot(long version, long parent, Instant timestamp, Configuration configuration) {
+            this.version = version;
+            this.parent = parent;
+            this.timestamp = timestamp;
+            this.configuration = configuration;
+        }
+
+        public long getVersion() {
+            return this.version;
+        }
+
+        /**
+         * It returns the version of the snapshot which was current when this
+         * snapshot has been committed, or zero for the first snapshot.
+         */
+        public long getParentVersion() {
+            return this.parent;
+        }
+
+        /**
+         * It returns the time when the snapshot has been committed.
+         */
+        public Instant getTimestamp() {
+            return this.timestamp;
+        }
+
+        public Configuration getConfiguration() {
+            return this.configuration;
+        }
+
+    }
+
+    /**
+     * An immutable state of the history, which is swapped as a whole.
+     */
+    private static final class State {
+
+        private final Snapshot current;
+        private final List<Snapshot> snapshots;
+
+        private State(Snapshot current, List<Snapshot> snapshots) {
+            this.current = current;
+            this.snapshots = snapshots;
+        }
+
+    }
+
+}
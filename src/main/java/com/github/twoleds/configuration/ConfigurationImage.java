@@ -0,0 +1,280 @@
+package com.github.twoleds.configuration;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A random-access binary image of a configuration. The image can be used
+ * directly from a memory-mapped file without building any configuration
+ * objects. All integers are written and read in the big-endian byte order,
+ * regardless of the order of the buffer.
+ * <pre>
+ * header:  magic "TLCI", version, string count, node count, node table offset
+ * strings: offsets of strings (string count + 1), UTF-8 data of strings
+ * nodes:   name id, value id, first child, child count (-1 for values)
+ * </pre>
+ * Strings are sorted, so an id of a string can be found by binary search.
+ * Nodes are written in breadth-first order, so children of every node are
+ * stored next to each other and the root is the first node.
+ */
+/* package */ class ConfigurationImage {
+
+    private static final int MAGIC = 0x544c4349;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 20;
+    private static final int NODE_SIZE = 16;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int nodeCount;
+    private final int stringData;
+    private final int nodeTable;
+    private final ConfigurationConversions conversions;
+
+    /* package */ ConfigurationImage(ByteBuffer buffer) throws ConfigurationException {
+        buffer = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new ConfigurationException("An invalid format of the configuration image.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new ConfigurationException(
+                    String.format("An unsupported version %d of the configuration image.", buffer.getInt(4))
+            );
+        }
+        this.stringCount = buffer.getInt(8);
+        this.nodeCount = buffer.getInt(12);
+        this.nodeTable = buffer.getInt(16);
+        long stringData = HEADER_SIZE + 4L * (this.stringCount + 1L);
+        if (this.stringCount < 0 || this.nodeCount < 1 || stringData > this.nodeTable
+                || (long)this.nodeTable + (long)this.nodeCount * NODE_SIZE > buffer.limit()) {
+            throw new ConfigurationException("An invalid format of the configuration image.");
+        }
+        this.stringData = (int)stringData;
+        this.validate();
+        this.conversions = new ConfigurationConversions(this.nodeCount);
+    }
+
+    /**
+     * It checks the tables of strings and nodes once, so the accessors can
+     * trust them: string offsets have to be ordered inside the string data,
+     * ids of names and values have to be in the string table and children
+     * have to follow their parents inside the node table.
+     */
+    private void validate() throws ConfigurationException {
+        int previous = 0;
+        for (int id = 0; id <= this.stringCount; id++) {
+            int offset = this.buffer.getInt(HEADER_SIZE + 4 * id);
+            if (offset < previous || (id == 0 && offset != 0) || this.stringData + (long)offset > this.nodeTable) {
+                throw new ConfigurationException("An invalid format of the configuration image.");
+            }
+            previous = offset;
+        }
+        for (int node = 0; node < this.nodeCount; node++) {
+            int nameId = this.getNameId(node);
+            int valueId = this.getValueId(node);
+            int firstChild = this.getFirstChild(node);
+            int childCount = this.getChildCount(node);
+            if (nameId < 0 || nameId >= this.stringCount || valueId < 0 || valueId >= this.stringCount
+                    || childCount < -1
+                    || (childCount >= 0 && (firstChild <= node || (long)firstChild + childCount > this.nodeCount))) {
+                throw new ConfigurationException("An invalid format of the configuration image.");
+            }
+        }
+    }
+
+    /* package */ ConfigurationConversions getConversions() {
+        return this.conversions;
+    }
+
+    /* package */ int getNameId(int node) {
+        return this.buffer.getInt(this.nodeTable + node * NODE_SIZE);
+    }
+
+    /* package */ int getValueId(int node) {
+        return this.buffer.getInt(this.nodeTable + node * NODE_SIZE + 4);
+    }
+
+    /* package */ int getFirstChild(int node) {
+        return this.buffer.getInt(this.nodeTable + node * NODE_SIZE + 8);
+    }
+
+    /* package */ int getChildCount(int node) {
+        return this.buffer.getInt(this.nodeTable + node * NODE_SIZE + 12);
+    }
+
+    /* package */ int getStringStart(int id) {
+        return this.stringData + this.buffer.getInt(HEADER_SIZE + 4 * id);
+    }
+
+    /* package */ int getStringEnd(int id) {
+        return this.stringData + this.buffer.getInt(HEADER_SIZE + 4 * id + 4);
+    }
+
+    /* package */ byte getByte(int index) {
+        return this.buffer.get(index);
+    }
+
+    /* package */ String getString(int id) {
+        int start = this.getStringStart(id);
+        byte[] bytes = new byte[this.getStringEnd(id) - start];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = this.buffer.get(start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * It finds an id of the string equal to the specified part of the
+     * sequence. If there isn't such string it returns <code>-1</code>.
+     */
+    /* package */ int findString(CharSequence sequence, int start, int end) {
+        int low = 0;
+        int high = this.stringCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int result = this.compare(middle, sequence, start, end);
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * It compares a string from the image with the specified part of the
+     * sequence in the same order as {@link String#compareTo(String)}, the
+     * string is decoded from UTF-8 on the fly.
+     */
+    private int compare(int id, CharSequence sequence, int start, int end) {
+        int position = this.getStringStart(id);
+        int limit = this.getStringEnd(id);
+        int pending = -1;
+        int index = start;
+        while (true) {
+            int c1;
+            if (pending >= 0) {
+                c1 = pending;
+                pending = -1;
+            } else if (position < limit) {
+                int b = this.buffer.get(position++) & 0xff;
+                int codePoint;
+                if (b < 0x80) {
+                    codePoint = b;
+                } else if (b < 0xe0) {
+                    codePoint = ((b & 0x1f) << 6) | (this.buffer.get(position++) & 0x3f);
+                } else if (b < 0xf0) {
+                    codePoint = ((b & 0x0f) << 12) | ((this.buffer.get(position++) & 0x3f) << 6)
+                            | (this.buffer.get(position++) & 0x3f);
+                } else {
+                    codePoint = ((b & 0x07) << 18) | ((this.buffer.get(position++) & 0x3f) << 12)
+                            | ((this.buffer.get(position++) & 0x3f) << 6) | (this.buffer.get(position++) & 0x3f);
+                }
+                if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    c1 = Character.highSurrogate(codePoint);
+                    pending = Character.lowSurrogate(codePoint);
+                } else {
+                    c1 = codePoint;
+                }
+            } else {
+                c1 = -1;
+            }
+            int c2 = index < end ? sequence.charAt(index++) : -1;
+            if (c1 != c2) {
+                return c1 - c2;
+            }
+            if (c1 < 0) {
+                return 0;
+            }
+        }
+    }
+
+    /* package */ static void write(Configuration configuration, OutputStream output) throws IOException {
+
+        // collect and sort all distinct strings
+        Set<String> distinct = new HashSet<>();
+        List<Configuration> nodes = new ArrayList<>();
+        Deque<Configuration> queue = new ArrayDeque<>();
+        queue.add(configuration);
+        while (!queue.isEmpty()) {
+            Configuration node = queue.poll();
+            nodes.add(node);
+            distinct.add(node.getName());
+            distinct.add(node.getValue());
+            if (node.getChildren() != null) {
+                queue.addAll(node.getChildren());
+            }
+        }
+
+        List<String> strings = new ArrayList<>(distinct);
+        Collections.sort(strings);
+        Map<String, Integer> ids = new HashMap<>();
+        List<byte[]> data = new ArrayList<>(strings.size());
+        int dataSize = 0;
+        for (String string : strings) {
+            ids.put(string, ids.size());
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            data.add(bytes);
+            dataSize += bytes.length;
+        }
+
+        int stringData = HEADER_SIZE + 4 * (strings.size() + 1);
+        int nodeTable = (stringData + dataSize + 3) & ~3;
+
+        DataOutputStream out = new DataOutputStream(output);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(strings.size());
+        out.writeInt(nodes.size());
+        out.writeInt(nodeTable);
+
+        int offset = 0;
+        out.writeInt(offset);
+        for (byte[] bytes : data) {
+            offset += bytes.length;
+            out.writeInt(offset);
+        }
+        for (byte[] bytes : data) {
+            out.write(bytes);
+        }
+        for (int i = stringData + dataSize; i < nodeTable; i++) {
+            out.write(0);
+        }
+
+        // children of nodes follow each other in the breadth-first order
+        int nextChild = 1;
+        for (Configuration node : nodes) {
+            out.writeInt(ids.get(node.getName()));
+            out.writeInt(ids.get(node.getValue()));
+            List<Configuration> children = node.getChildren();
+            if (children == null) {
+                out.writeInt(0);
+                out.writeInt(-1);
+            } else {
+                out.writeInt(nextChild);
+                out.writeInt(children.size());
+                nextChild += children.size();
+            }
+        }
+        out.flush();
+
+    }
+
+}
@@ -0,0 +1,159 @@
+package com.github.twoleds.configuration;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A process-wide cache of included configuration files. Every entry is keyed
+ * by a real path of the file and by the base directory of includes, and it's
+ * valid while the modification time and the size of the file and all files
+ * included by the file don't change. The cache keeps at most 256 least
+ * recently used entries.
+ */
+/* package */ class ConfigurationIncludeCache {
+
+    /* package */ static final int MAX_ENTRIES = 256;
+
+    private static final Map<List<Path>, Entry> entries = Collections.synchronizedMap(
+            new LinkedHashMap<List<Path>, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Path>, ConfigurationIncludeCache.Entry> eldest) {
+                    return this.size() > MAX_ENTRIES;
+                }
+            }
+    );
+
+    private ConfigurationIncludeCache() {
+    }
+
+    /* package */ static void clear() {
+        ConfigurationIncludeCache.entries.clear();
+    }
+
+    /**
+     * It returns a cached configuration of the specified file or it parses the
+     * file if the file isn't cached yet or it has been changed.
+     */
+    /* package */ static Entry load(Path file, Set<Path> includeChain, Path includeBase) throws ConfigurationException {
+
+        List<Path> key = Arrays.asList(file, includeBase);
+        Entry entry = ConfigurationIncludeCache.entries.get(key);
+        if (entry != null && entry.isValid()) {
+            return entry;
+        }
+
+        Stamp stamp = Stamp.of(file);
+        try (ConfigurationParser parser = new ConfigurationParser(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), file, includeChain, includeBase
+        )) {
+            Configuration configuration = parser.parse();
+            List<Stamp> stamps = new ArrayList<>(parser.getDependencies().size() + 1);
+            stamps.add(stamp);
+            stamps.addAll(parser.getDependencies());
+            entry = new Entry(configuration, Collections.unmodifiableList(stamps));
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+
+        ConfigurationIncludeCache.entries.put(key, entry);
+        return entry;
+
+    }
+
+    /* package */ static Path realPath(Path file) throws ConfigurationException {
+        try {
+            return file.toRealPath();
+        } catch (IOException e) {
+            throw new ConfigurationException(String.format("A file \"%s\" cannot be resolved.", file), e);
+        }
+    }
+
+    /* package */ static class Entry {
+
+        private final Configuration configuration;
+        private final List<Stamp> stamps;
+
+        private Entry(Configuration configuration, List<Stamp> stamps) {
+            this.configuration = configuration;
+            this.stamps = stamps;
+        }
+
+        /* package */ Configuration getConfiguration() {
+            return this.configuration;
+        }
+
+        /**
+         * It returns stamps of the file and all files included by the file.
+         */
+        /* package */ List<Stamp> getStamps() {
+            return this.stamps;
+        }
+
+        private boolean isValid() {
+            for (Stamp stamp : this.stamps) {
+                if (!stamp.isValid()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+    }
+
+    /* package */ static class Stamp {
+
+        private final Path path;
+        private final FileTime modified;
+        private final long size;
+
+        /* package */ Stamp(Path path, FileTime modified, long size) {
+            this.path = path;
+            this.modified = modified;
+            this.size = size;
+        }
+
+        /* package */ static Stamp of(Path path) throws ConfigurationException {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                return new Stamp(path, attributes.lastModifiedTime(), attributes.size());
+            } catch (IOException e) {
+                throw new ConfigurationException("An I/O error occurred.", e);
+            }
+        }
+
+        /* package */ Path getPath() {
+            return this.path;
+        }
+
+        /* package */ FileTime getModified() {
+            return this.modified;
+        }
+
+        /* package */ long getSize() {
+            return this.size;
+        }
+
+        /* package */ boolean isValid() {
+            try {
+                BasicFileAttributes attributes = Files.readAttributes(this.path, BasicFileAttributes.class);
+                return attributes.size() == this.size && attributes.lastModifiedTime().equals(this.modified);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+    }
+
+}
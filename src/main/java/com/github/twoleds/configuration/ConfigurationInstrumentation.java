@@ -0,0 +1,107 @@
+package com.github.twoleds.configuration;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Instrumentation of parsing. Every parsing is reported to registered
+ * {@link ConfigurationMetrics} listeners and as a JDK Flight Recorder event,
+ * if the event is enabled. When there are no listeners and the event is not
+ * enabled, parsing isn't even timed. Classes of the Flight Recorder are
+ * loaded only if they are available in the JVM.
+ */
+/* package */ class ConfigurationInstrumentation {
+
+    private static final List<ConfigurationMetrics> metrics = new CopyOnWriteArrayList<>();
+    private static final boolean flightRecorder = ConfigurationInstrumentation.isFlightRecorderAvailable();
+
+    private ConfigurationInstrumentation() {
+    }
+
+    /* package */ static void addMetrics(ConfigurationMetrics listener) {
+        ConfigurationInstrumentation.metrics.add(listener);
+    }
+
+    /* package */ static void removeMetrics(ConfigurationMetrics listener) {
+        ConfigurationInstrumentation.metrics.remove(listener);
+    }
+
+    /* package */ static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, ConfigurationInstrumentation.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * It starts a measurement of a parsing, it returns the <code>null</code>
+     * value if nobody is interested in the parsing.
+     */
+    /* package */ static Probe start() {
+        Object event = flightRecorder ? ConfigurationEvents.beginParse() : null;
+        if (event == null && ConfigurationInstrumentation.metrics.isEmpty()) {
+            return null;
+        }
+        return new Probe(System.nanoTime(), event);
+    }
+
+    /**
+     * It reports a slow lookup of the query as a Flight Recorder event.
+     */
+    /* package */ static void slowQuery(String query, long time, boolean miss) {
+        if (flightRecorder) {
+            ConfigurationEvents.commitSlowQuery(query, time, miss);
+        }
+    }
+
+    /**
+     * A measurement of a single parsing.
+     */
+    /* package */ static class Probe {
+
+        private final long start;
+        private final Object event;
+
+        private Probe(long start, Object event) {
+            this.start = start;
+            this.event = event;
+        }
+
+        /**
+         * It reports the finished parsing. It never throws an exception, so
+         * the result of the parsing isn't masked, exceptions of listeners are
+         * added to the error of the parsing as suppressed exceptions.
+         */
+        /* package */ void finish(String source, long length, int nodes, int maxDepth, Throwable failure) {
+            if (this.event != null) {
+                try {
+                    ConfigurationEvents.commitParse(this.event, source, length, nodes, maxDepth, failure);
+                } catch (RuntimeException e) {
+                    Probe.suppress(failure, e);
+                }
+            }
+            if (!ConfigurationInstrumentation.metrics.isEmpty()) {
+                ConfigurationMetrics.Parse parse = new ConfigurationMetrics.Parse(
+                        source, length, nodes, maxDepth, System.nanoTime() - this.start, failure
+                );
+                for (ConfigurationMetrics listener : ConfigurationInstrumentation.metrics) {
+                    try {
+                        listener.parsed(parse);
+                    } catch (RuntimeException e) {
+                        Probe.suppress(failure, e);
+                    }
+                }
+            }
+        }
+
+        private static void suppress(Throwable failure, RuntimeException e) {
+            if (failure != null && failure != e) {
+                failure.addSuppressed(e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.github.twoleds.configuration;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * It resolves references in configuration values. A reference has a form
+ * <code>${path/to:value/node}</code> and it's replaced by the value of the
+ * node found by the path from the root of the configuration. References
+ * <code>${env:NAME}</code> and <code>${sys:name}</code> are replaced by an
+ * environment variable and a system property. A sequence <code>$${</code> is
+ * written as <code>${</code> without any replacement.
+ * <p>
+ * All references are resolved only once in the topological order of the
+ * reference graph, the resolved values are stored in a new tree and unchanged
+ * sub-trees are shared with the original tree.
+ */
+/* package */ class ConfigurationInterpolator {
+
+    private static final int UNVISITED = 0;
+    private static final int VISITING = 1;
+    private static final int RESOLVED = 2;
+
+    private final Configuration root;
+    private final Map<Configuration, Template> templates;
+    private final Map<Configuration, String> values;
+
+    /* package */ ConfigurationInterpolator(Configuration root) {
+        this.root = root;
+        this.templates = new IdentityHashMap<>();
+        this.values = new IdentityHashMap<>();
+    }
+
+    /* package */ Configuration interpolate() throws ConfigurationException {
+        this.collect(this.root, "");
+        if (this.templates.isEmpty()) {
+            return this.root;
+        }
+        for (Map.Entry<Configuration, Template> entry : this.templates.entrySet()) {
+            this.resolve(entry.getKey(), entry.getValue(), new ArrayList<>());
+        }
+        return this.rebuild(this.root);
+    }
+
+    private void collect(Configuration conf, String path) throws ConfigurationException {
+        List<Configuration> children = conf.getChildren();
+        if (children != null) {
+            for (Configuration child : children) {
+                String childPath = path.isEmpty()
+                        ? child.getName() + ':' + child.getValue()
+                        : path + '/' + child.getName() + ':' + child.getValue();
+                if (child.getValue().contains("${")) {
+                    this.templates.put(child, Template.parse(child.getValue(), childPath));
+                }
+                this.collect(child, childPath);
+            }
+        }
+    }
+
+    private String resolve(Configuration conf, Template template, List<Template> chain) throws ConfigurationException {
+
+        String value = this.values.get(conf);
+        if (value != null) {
+            return value;
+        }
+
+        if (template.state == VISITING) {
+            StringBuilder message = new StringBuilder("A cyclic reference ");
+            for (int i = chain.indexOf(template); i < chain.size(); i++) {
+                message.append('"').append(chain.get(i).path).append("\" -> ");
+            }
+            message.append('"').append(template.path).append("\".");
+            throw new ConfigurationException(message.toString());
+        }
+
+        template.state = VISITING;
+        chain.add(template);
+
+        StringBuilder buffer = new StringBuilder();
+        for (Object part : template.parts) {
+            if (part instanceof Reference) {
+                buffer.append(this.resolve((Reference)part, template, chain));
+            } else {
+                buffer.append((String)part);
+            }
+        }
+
+        chain.remove(chain.size() - 1);
+        template.state = RESOLVED;
+
+        value = buffer.toString();
+        this.values.put(conf, value);
+        return value;
+
+    }
+
+    private String resolve(Reference reference, Template template, List<Template> chain) throws ConfigurationException {
+
+        String value;
+        if (reference.key.startsWith("env:")) {
+            value = System.getenv(reference.key.substring(4));
+        } else if (reference.key.startsWith("sys:")) {
+            value = System.getProperty(reference.key.substring(4));
+        } else {
+            Configuration target = this.root.query(reference.key);
+            if (target == null) {
+                value = null;
+            } else {
+                Template targetTemplate = this.templates.get(target);
+                value = targetTemplate != null ? this.resolve(target, targetTemplate, chain) : target.getValue();
+            }
+        }
+
+        if (value == null) {
+            throw new ConfigurationException(
+                    String.format("An unresolved reference \"${%s}\" in \"%s\".", reference.key, template.path)
+            );
+        }
+        return value;
+
+    }
+
+    private Configuration rebuild(Configuration conf) {
+
+        String value = this.values.get(conf);
+        boolean changed = value != null;
+        if (value == null) {
+            value = conf.getValue();
+        }
+
+        List<Configuration> children = conf.getChildren();
+        List<Configuration> result = null;
+        if (children != null) {
+            result = new ArrayList<>(children.size());
+            for (Configuration child : children) {
+                Configuration rebuilt = this.rebuild(child);
+                changed |= rebuilt != child;
+                result.add(rebuilt);
+            }
+        }
+
+        return changed ? new Configuration(conf.getName(), value, result) : conf;
+
+    }
+
+    private static class Reference {
+
+        private final String key;
+
+        private Reference(String key) {
+            this.key = key;
+        }
+
+    }
+
+    private static class Template {
+
+        private final String path;
+        private final List<Object> parts;
+        private int state;
+
+        private Template(String path, List<Object> parts) {
+            this.path = path;
+            this.parts = parts;
+            this.state = UNVISITED;
+        }
+
+        private static Template parse(String value, String path) throws ConfigurationException {
+
+            List<Object> parts = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+
+            int i = 0;
+            while (i < value.length()) {
+                if (value.startsWith("$${", i)) {
+                    literal.append("${");
+                    i += 3;
+                } else if (value.startsWith("${", i)) {
+                    int end = value.indexOf('}', i + 2);
+                    if (end < 0) {
+                        throw new ConfigurationException(
+                                String.format("An unterminated reference in \"%s\".", path)
+                        );
+                    }
+                    if (literal.length() > 0) {
+                        parts.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    parts.add(new Reference(value.substring(i + 2, end)));
+                    i = end + 1;
+                } else {
+                    literal.append(value.charAt(i));
+                    i++;
+                }
+            }
+
+            if (literal.length() > 0) {
+                parts.add(literal.toString());
+            }
+            return new Template(path, parts);
+
+        }
+
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.github.twoleds.configuration;
+
+/**
+ * Limits of resources used by the parser, for configurations from untrusted
+ * sources, see {@link ConfigurationParser#setLimits(ConfigurationLimits)}.
+ * The limits are checked while the input is read, so an oversized input is
+ * rejected as soon as it exceeds a limit and it is never buffered as
+ * a whole.
+ * <p>
+ * Included files are parsed with the same limits, their input, nodes and
+ * depth count to the limits together with the including file.
+ * <pre>
+ * ConfigurationLimits limits = new ConfigurationLimits.Builder()
+ *         .maxInputLength(1024 * 1024)
+ *         .maxDepth(16)
+ *         .build();
+ * </pre>
+ */
+public final class ConfigurationLimits {
+
+    /**
+     * Limits which don't limit anything.
+     */
+    public static final ConfigurationLimits UNLIMITED = new Builder().build();
+
+    private final long maxInputLength;
+    private final int maxDepth;
+    private final int maxValueLength;
+    private final int maxChildren;
+    private final int maxNodes;
+
+    private ConfigurationLimits(long maxInputLength, int maxDepth, int maxValueLength, int maxChildren, int maxNodes) {
+        this.maxInputLength = maxInputLength;
+        this.maxDepth = maxDepth;
+        this.maxValueLength = maxValueLength;
+        this.maxChildren = maxChildren;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * It returns the maximum number of characters of the input.
+     */
+    public long getMaxInputLength() {
+        return this.maxInputLength;
+    }
+
+    /**
+     * It returns the maximum number of nested sections.
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * It returns the maximum number of characters of a name or a value.
+     */
+    public int getMaxValueLength() {
+        return this.maxValueLength;
+    }
+
+    /**
+     * It returns the maximum number of values and sections of a section,
+     * including the top level.
+     */
+    public int getMaxChildren() {
+        return this.maxChildren;
+    }
+
+    /**
+     * It returns the maximum number of all values and sections.
+     */
+    public int getMaxNodes() {
+        return this.maxNodes;
+    }
+
+    /**
+     * It returns true if these limits don't limit anything, like
+     * {@link #UNLIMITED}.
+     */
+    public boolean isUnlimited() {
+        return this.maxInputLength == Long.MAX_VALUE
+                && this.maxDepth == Integer.MAX_VALUE
+                && this.maxValueLength == Integer.MAX_VALUE
+                && this.maxChildren == Integer.MAX_VALUE
+                && this.maxNodes == Integer.MAX_VALUE;
+    }
+
+    public static class Builder {
+
+        private long maxInputLength = Long.MAX_VALUE;
+        private int maxDepth = Integer.MAX_VALUE;
+        private int maxValueLength = Integer.MAX_VALUE;
+        private int maxChildren = Integer.MAX_VALUE;
+        private int maxNodes = Integer.MAX_VALUE;
+
+        public Builder maxInputLength(long maxInputLength) {
+            this.maxInputLength = Builder.check(maxInputLength);
+            return this;
+        }
+
+        public Builder maxDepth(int maxDepth) {
+            this.maxDepth = (int)Builder.check(maxDepth);
+            return this;
+        }
+
+        public Builder maxValueLength(int maxValueLength) {
+            this.maxValueLength = (int)Builder.check(maxValueLength);
+            return this;
+        }
+
+        public Builder maxChildren(int maxChildren) {
+            this.maxChildren = (int)Builder.check(maxChildren);
+            return this;
+        }
+
+        public Builder maxNodes(int maxNodes) {
+            this.maxNodes = (int)Builder.check(maxNodes);
+            return this;
+        }
+
+        public ConfigurationLimits build() {
+            return new ConfigurationLimits(this.maxInputLength, this.maxDepth, this.maxValueLength, this.maxChildren, this.maxNodes);
+        }
+
+        private static long check(long limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException();
+            }
+            return limit;
+        }
+
+    }
+
+}
@@ -0,0 +1,154 @@
+package com.github.twoleds.configuration;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * It loads several configuration files concurrently. Errors are collected
+ * for every file and they are reported together after all files are loaded.
+ */
+/* package */ class ConfigurationLoader {
+
+    private ConfigurationLoader() {
+    }
+
+    /**
+     * It returns files from the specified directory which match the specified
+     * glob pattern, the files are sorted by their names.
+     */
+    /* package */ static List<Path> list(Path directory, String glob) throws ConfigurationException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    files.add(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+        Collections.sort(files, (a, b) -> a.getFileName().toString().compareTo(b.getFileName().toString()));
+        return files;
+    }
+
+    /**
+     * It parses all specified files and returns their configurations in the
+     * same order. If the executor is <code>null</code> it uses virtual threads
+     * if they are supported by the JVM or the common fork-join pool.
+     */
+    /* package */ static List<Configuration> parseAll(List<Path> files, Executor executor) throws ConfigurationException {
+        return ConfigurationLoader.parseAll(files, executor, Configuration::parse);
+    }
+
+    /**
+     * It parses all specified files by the specified function and returns
+     * their configurations in the same order. A single file is parsed
+     * directly by the calling thread.
+     */
+    /* package */ static List<Configuration> parseAll(List<Path> files, Executor executor, FileParser parser) throws ConfigurationException {
+
+        ExecutorService owned = null;
+        if (files.size() <= 1) {
+            executor = Runnable::run;
+        } else if (executor == null) {
+            owned = ConfigurationLoader.newVirtualThreadExecutor();
+            executor = owned != null ? owned : ForkJoinPool.commonPool();
+        }
+
+        try {
+
+            List<CompletableFuture<Configuration>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return ConfigurationLoader.parse(parser, file);
+                    } catch (ConfigurationException e) {
+                        throw new CompletionException(e);
+                    }
+                }, executor));
+            }
+
+            List<Configuration> result = new ArrayList<>(files.size());
+            List<ConfigurationException> errors = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                try {
+                    result.add(futures.get(i).join());
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    errors.add(new ConfigurationException(
+                            String.format("An error occurred in the file \"%s\": %s", files.get(i), cause.getMessage()),
+                            cause
+                    ));
+                }
+            }
+
+            if (!errors.isEmpty()) {
+                ConfigurationException error = new ConfigurationException(
+                        errors.size() == 1
+                                ? errors.get(0).getMessage()
+                                : String.format("An error occurred in %d of %d files.", errors.size(), files.size())
+                );
+                for (ConfigurationException e : errors) {
+                    error.addSuppressed(e);
+                }
+                throw error;
+            }
+            return result;
+
+        } finally {
+            if (owned != null) {
+                owned.shutdown();
+            }
+        }
+
+    }
+
+    /**
+     * It merges children of all specified configurations under a single root.
+     */
+    /* package */ static Configuration merge(List<Configuration> configurations) {
+        int size = 0;
+        for (Configuration configuration : configurations) {
+            size += configuration.getChildren().size();
+        }
+        List<Configuration> children = new ArrayList<>(size);
+        for (Configuration configuration : configurations) {
+            children.addAll(configuration.getChildren());
+        }
+        return new Configuration("", "", children);
+    }
+
+    private static Configuration parse(FileParser parser, Path file) throws ConfigurationException {
+        try {
+            return parser.parse(file);
+        } catch (ConfigurationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new ConfigurationException("An unexpected error occurred.", e);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /* package */ interface FileParser {
+        Configuration parse(Path file) throws ConfigurationException;
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.github.twoleds.configuration;
+
+/**
+ * A listener of parsing of configurations, which can be used to collect
+ * counters and histograms of configuration loads. Listeners are registered by
+ * {@link ConfigurationParser#addMetrics(ConfigurationMetrics)}. They are
+ * called by the thread which parsed the configuration, right after the
+ * parsing finished or failed. An exception thrown by a listener doesn't
+ * change the result of the parsing, it's added as a suppressed exception to
+ * the error of the parsing, if there is any, otherwise it's ignored.
+ */
+public interface ConfigurationMetrics {
+
+    void parsed(Parse parse);
+
+    /**
+     * Statistics of a single parsing of a configuration.
+     */
+    final class Parse {
+
+        private final String source;
+        private final long length;
+        private final int nodes;
+        private final int maxDepth;
+        private final long duration;
+        private final Throwable failure;
+
+        /* package */ Parse(String source, long length, int nodes, int maxDepth, long duration, Throwable failure) {
+            this.source = source;
+            this.length = length;
+            this.nodes = nodes;
+            this.maxDepth = maxDepth;
+            this.duration = duration;
+            this.failure = failure;
+        }
+
+        /**
+         * It returns a path or a URL of the parsed configuration, or the
+         * <code>null</code> value if the configuration hasn't been parsed
+         * from a file or a URL.
+         */
+        public String getSource() {
+            return this.source;
+        }
+
+        /**
+         * It returns the number of characters read by the parser.
+         */
+        public long getLength() {
+            return this.length;
+        }
+
+        /**
+         * It returns the number of values and sections read by the parser.
+         * Values and sections of included files are counted only if the
+         * parser has limits, see
+         * {@link ConfigurationParser#setLimits(ConfigurationLimits)},
+         * otherwise included files are parsed and cached separately.
+         */
+        public int getNodes() {
+            return this.nodes;
+        }
+
+        public int getMaxDepth() {
+            return this.maxDepth;
+        }
+
+        /**
+         * It returns the duration of parsing in nanoseconds.
+         */
+        public long getDuration() {
+            return this.duration;
+        }
+
+        /**
+         * It returns the error of the parsing or the <code>null</code> value if
+         * the configuration has been parsed successfully.
+         */
+        public Throwable getFailure() {
+            return this.failure;
+        }
+
+    }
+
+}
@@ -0,0 +1,257 @@
+package com.github.twoleds.configuration;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * An output of the {@link ConfigurationBuilder}. It's either a writer of
+ * characters or a sink which encodes characters directly to UTF-8 bytes.
+ */
+/* package */ abstract class ConfigurationOutput implements Closeable, Flushable {
+
+    private static final int TABS = 64;
+
+    /* package */ abstract void write(char c) throws IOException;
+
+    /* package */ abstract void write(String value, int start, int end) throws IOException;
+
+    /* package */ abstract void writeTabs(int count) throws IOException;
+
+    /* package */ abstract void writeLong(long value) throws IOException;
+
+    /* package */ void write(String value) throws IOException {
+        this.write(value, 0, value.length());
+    }
+
+    /**
+     * An output to a character writer.
+     */
+    /* package */ static class WriterOutput extends ConfigurationOutput {
+
+        private static final char[] tabs = ConfigurationOutput.WriterOutput.createTabs();
+
+        private final Writer writer;
+
+        /* package */ WriterOutput(Writer writer) {
+            this.writer = new BufferedWriter(writer);
+        }
+
+        @Override
+        /* package */ void write(char c) throws IOException {
+            this.writer.write(c);
+        }
+
+        @Override
+        /* package */ void write(String value, int start, int end) throws IOException {
+            this.writer.write(value, start, end - start);
+        }
+
+        @Override
+        /* package */ void writeTabs(int count) throws IOException {
+            for (; count > 0; count -= TABS) {
+                this.writer.write(tabs, 0, Math.min(count, TABS));
+            }
+        }
+
+        @Override
+        /* package */ void writeLong(long value) throws IOException {
+            this.writer.write(Long.toString(value));
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.writer.close();
+        }
+
+        private static char[] createTabs() {
+            char[] tabs = new char[TABS];
+            Arrays.fill(tabs, '\t');
+            return tabs;
+        }
+
+    }
+
+    /**
+     * An output which encodes characters to UTF-8 into a reusable buffer and
+     * writes the buffer to an output stream or a channel when it's full.
+     */
+    /* package */ static class Utf8Output extends ConfigurationOutput {
+
+        private static final int BUFFER_SIZE = 8192;
+
+        private final OutputStream stream;
+        private final WritableByteChannel channel;
+        private final byte[] buffer;
+        private final ByteBuffer wrapper;
+        private int position;
+
+        /* package */ Utf8Output(OutputStream stream) {
+            this(stream, null);
+        }
+
+        /* package */ Utf8Output(WritableByteChannel channel) {
+            this(null, channel);
+        }
+
+        private Utf8Output(OutputStream stream, WritableByteChannel channel) {
+            this.stream = stream;
+            this.channel = channel;
+            this.buffer = new byte[BUFFER_SIZE];
+            this.wrapper = channel != null ? ByteBuffer.wrap(this.buffer) : null;
+            this.position = 0;
+        }
+
+        @Override
+        /* package */ void write(char c) throws IOException {
+            if (c < 0x80) {
+                if (this.position == BUFFER_SIZE) {
+                    this.drain();
+                }
+                this.buffer[this.position++] = (byte)c;
+            } else {
+                this.write(String.valueOf(c), 0, 1);
+            }
+        }
+
+        @Override
+        /* package */ void write(String value, int start, int end) throws IOException {
+            byte[] buffer = this.buffer;
+            int position = this.position;
+            int i = start;
+            while (i < end) {
+
+                if (BUFFER_SIZE - position < 4) {
+                    this.position = position;
+                    this.drain();
+                    position = 0;
+                }
+
+                // copy a run of ASCII characters without any branching per encoding
+                int limit = Math.min(end, i + (BUFFER_SIZE - position));
+                char c;
+                while (i < limit && (c = value.charAt(i)) < 0x80) {
+                    buffer[position++] = (byte)c;
+                    i++;
+                }
+                if (i == limit) {
+                    continue;
+                }
+                if (BUFFER_SIZE - position < 4) {
+                    continue;
+                }
+
+                c = value.charAt(i++);
+                if (c < 0x800) {
+                    buffer[position++] = (byte)(0xc0 | (c >> 6));
+                    buffer[position++] = (byte)(0x80 | (c & 0x3f));
+                } else if (Character.isHighSurrogate(c) && i < end && Character.isLowSurrogate(value.charAt(i))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(i++));
+                    buffer[position++] = (byte)(0xf0 | (codePoint >> 18));
+                    buffer[position++] = (byte)(0x80 | ((codePoint >> 12) & 0x3f));
+                    buffer[position++] = (byte)(0x80 | ((codePoint >> 6) & 0x3f));
+                    buffer[position++] = (byte)(0x80 | (codePoint & 0x3f));
+                } else if (Character.isSurrogate(c)) {
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = (byte)(0xe0 | (c >> 12));
+                    buffer[position++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+                    buffer[position++] = (byte)(0x80 | (c & 0x3f));
+                }
+
+            }
+            this.position = position;
+        }
+
+        @Override
+        /* package */ void writeTabs(int count) throws IOException {
+            while (count > 0) {
+                if (this.position == BUFFER_SIZE) {
+                    this.drain();
+                }
+                int length = Math.min(count, BUFFER_SIZE - this.position);
+                Arrays.fill(this.buffer, this.position, this.position + length, (byte)'\t');
+                this.position += length;
+                count -= length;
+            }
+        }
+
+        /**
+         * It formats the number directly into the buffer from the last digit.
+         */
+        @Override
+        /* package */ void writeLong(long value) throws IOException {
+            if (BUFFER_SIZE - this.position < 20) {
+                this.drain();
+            }
+            if (value == Long.MIN_VALUE) {
+                this.write("-9223372036854775808");
+                return;
+            }
+            if (value < 0) {
+                this.buffer[this.position++] = '-';
+                value = -value;
+            }
+            int length = 1;
+            for (long rest = value / 10; rest > 0; rest /= 10) {
+                length++;
+            }
+            int position = this.position + length;
+            this.position = position;
+            do {
+                this.buffer[--position] = (byte)('0' + (value % 10));
+                value /= 10;
+            } while (value > 0);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            this.drain();
+            if (this.stream != null) {
+                this.stream.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                this.drain();
+            } finally {
+                if (this.stream != null) {
+                    this.stream.close();
+                } else {
+                    this.channel.close();
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            if (this.position == 0) {
+                return;
+            }
+            if (this.stream != null) {
+                this.stream.write(this.buffer, 0, this.position);
+            } else {
+                this.wrapper.clear();
+                this.wrapper.limit(this.position);
+                while (this.wrapper.hasRemaining()) {
+                    this.channel.write(this.wrapper);
+                }
+            }
+            this.position = 0;
+        }
+
+    }
+
+}
@@ -1,29 +1,241 @@
 package com.github.twoleds.configuration;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 public class ConfigurationParser implements AutoCloseable {
 
-    private final Reader reader;
-    private final StringBuffer buffer;
+    private static final int CHUNK_SIZE = 8192;
+    private static final int MAX_RETAINED_BUFFER = 65536;
+
+    private static final ThreadLocal<ConfigurationParser> threadLocal = ThreadLocal.withInitial(ConfigurationParser::new);
+
+    private final char[] chars;
+    private int position;
+    private int limit;
+    private Reader reader;
+    private CharSequence input;
+    private int inputPosition;
+
+    private StringBuilder buffer;
     private State state;
+    private boolean busy;
+
+    private Path path;
+    private Set<Path> includeChain;
+    private Path includeBase;
+    private ConfigurationArena arena;
+    private ConfigurationSchema schema;
+    private ConfigurationLimits limits;
+    private long filled;
+    private long filledOffset;
+    private int depthOffset;
+    private int nodesOffset;
+    private int[] children;
+    private final List<ConfigurationIncludeCache.Stamp> dependencies;
 
     private int column;
     private int line;
 
+    private String source;
+    private long length;
+    private int nodes;
+    private int maxDepth;
+
+    /**
+     * It creates a parser without any input, the input has to be set by
+     * {@link #reset(CharSequence)} or {@link #reset(Reader)}.
+     */
+    public ConfigurationParser() {
+        this.chars = new char[CHUNK_SIZE];
+        this.buffer = new StringBuilder();
+        this.dependencies = new ArrayList<>();
+        this.children = new int[16];
+        this.reset(null, null, null, Collections.emptySet(), null);
+    }
+
+    /**
+     * It creates a parser of the configuration from the specified character
+     * sequence, the sequence is read directly without any reader.
+     */
+    public ConfigurationParser(CharSequence input) {
+        this();
+        this.reset(input);
+    }
+
     public ConfigurationParser(Reader reader) {
-        this.reader = new BufferedReader(reader);
-        this.buffer = new StringBuffer();
+        this(reader, null);
+    }
+
+    /**
+     * It creates a parser of the configuration from the specified file. The
+     * path is used to resolve relative paths of included files, files can be
+     * included only from the directory of the file and its subdirectories.
+     */
+    public ConfigurationParser(Reader reader, Path path) {
+        this(reader, path, Collections.emptySet(), ConfigurationParser.directoryOf(path));
+    }
+
+    /* package */ ConfigurationParser(Reader reader, Path path, Set<Path> includeChain, Path includeBase) {
+        this();
+        this.reset(reader, null, path, includeChain, includeBase);
+    }
+
+    /**
+     * It returns a parser cached by the current thread, which can be reset
+     * and reused for parsing of many small configurations without allocation
+     * of a new parser and its buffers. If the cached parser is parsing at the
+     * moment, for example when a {@link ConfigurationMetrics} listener parses
+     * another configuration, it returns a new parser. The returned parser
+     * should be reset and used right away, before this method is called
+     * again by the same thread.
+     */
+    public static ConfigurationParser threadLocal() {
+        ConfigurationParser parser = ConfigurationParser.threadLocal.get();
+        return parser.busy ? new ConfigurationParser() : parser;
+    }
+
+    /**
+     * It resets the parser to parse the specified character sequence. The
+     * sequence is read directly without any reader. Everything is reset,
+     * including the arena, the schema and the limits.
+     */
+    public ConfigurationParser reset(CharSequence input) {
+        return this.reset(null, input, null, Collections.emptySet(), null);
+    }
+
+    /**
+     * It resets the parser to parse the specified reader. A previous reader
+     * is not closed. Everything is reset, including the arena, the schema
+     * and the limits.
+     */
+    public ConfigurationParser reset(Reader reader) {
+        return this.reset(reader, null, null, Collections.emptySet(), null);
+    }
+
+    /**
+     * It resets the parser to parse the specified file. The path is used to
+     * resolve relative paths of included files, files can be included only
+     * from the directory of the file and its subdirectories.
+     */
+    public ConfigurationParser reset(Reader reader, Path path) {
+        return this.reset(reader, null, path, Collections.emptySet(), ConfigurationParser.directoryOf(path));
+    }
+
+    private ConfigurationParser reset(Reader reader, CharSequence input, Path path, Set<Path> includeChain, Path includeBase) {
+        if (this.busy) {
+            throw new IllegalStateException("The parser is parsing a configuration.");
+        }
+        this.reader = reader;
+        this.input = input;
+        this.inputPosition = 0;
+        this.filled = 0;
+        this.filledOffset = 0;
+        this.depthOffset = 0;
+        this.nodesOffset = 0;
+        this.position = 0;
+        this.limit = 0;
+
+        if (this.buffer.capacity() > MAX_RETAINED_BUFFER) {
+            this.buffer = new StringBuilder();
+        } else {
+            this.buffer.setLength(0);
+        }
         this.state = State.START;
 
+        this.path = path;
+        this.includeChain = includeChain;
+        this.includeBase = includeBase;
+        this.arena = null;
+        this.schema = null;
+        this.limits = ConfigurationLimits.UNLIMITED;
+        this.children[0] = 0;
+        this.dependencies.clear();
+
         this.column = 1;
         this.line = 1;
+
+        this.source = path != null ? path.toString() : null;
+        this.length = 0;
+        this.nodes = 0;
+        this.maxDepth = 0;
+        return this;
+    }
+
+    /**
+     * It removes all parsed files from the process-wide cache of included
+     * files, so they will be parsed again when they are included next time.
+     */
+    public static void clearIncludeCache() {
+        ConfigurationIncludeCache.clear();
+    }
+
+    /**
+     * It registers a listener which is notified about every parsing of
+     * a configuration. See {@link ConfigurationMetrics} for details.
+     */
+    public static void addMetrics(ConfigurationMetrics metrics) {
+        ConfigurationInstrumentation.addMetrics(metrics);
+    }
+
+    public static void removeMetrics(ConfigurationMetrics metrics) {
+        ConfigurationInstrumentation.removeMetrics(metrics);
+    }
+
+    /**
+     * It sets an arena for large quoted values. Values longer than the
+     * threshold of the arena are stored off-heap in the arena and they are
+     * decoded on every access. The <code>null</code> value stores all values
+     * on the heap.
+     */
+    public void setArena(ConfigurationArena arena) {
+        this.arena = arena;
+    }
+
+    /**
+     * It sets a schema which is checked while the configuration is parsed.
+     * An invalid value or section is rejected right away with its line and
+     * column. The <code>null</code> value disables the validation. The schema
+     * is removed when the parser is reset.
+     */
+    public void setSchema(ConfigurationSchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * It allows includes of files from the specified directory and its
+     * subdirectories. Relative paths are resolved against the directory of
+     * the parsed file, or against this directory if the parser doesn't parse
+     * a file. The <code>null</code> value disallows includes, which is the
+     * default for parsers of strings, readers and URLs. The directory is
+     * removed when the parser is reset.
+     */
+    public void setIncludeBase(Path directory) {
+        this.includeBase = directory != null ? directory.toAbsolutePath().normalize() : null;
+    }
+
+    /**
+     * It sets limits of the input, which are checked while the input is
+     * read. The <code>null</code> value removes all limits. The limits are
+     * removed when the parser is reset.
+     */
+    public void setLimits(ConfigurationLimits limits) {
+        this.limits = limits != null ? limits : ConfigurationLimits.UNLIMITED;
     }
 
     @Override
     public void close() throws ConfigurationException {
+        if (this.reader == null) {
+            return;
+        }
         try {
             this.reader.close();
         } catch (IOException e) {
@@ -32,31 +244,167 @@ public class ConfigurationParser implements AutoCloseable {
     }
 
     public Configuration parse() throws ConfigurationException {
-        return this.parse("", "");
+        TreeHandler handler = new TreeHandler();
+        this.parse(handler);
+        return handler.getConfiguration();
     }
 
-    private Configuration parse(String name, String value) throws ConfigurationException {
+    /**
+     * It sets a source of the configuration, which is reported to the
+     * instrumentation of parsing, for example a URL.
+     */
+    /* package */ void setSource(String source) {
+        this.source = source;
+    }
+
+    /**
+     * It parses the configuration and it reports all values and sections to
+     * the specified handler in the order of the input. The parsing is
+     * reported to the instrumentation, see {@link ConfigurationMetrics}.
+     */
+    /* package */ void parse(Handler handler) throws ConfigurationException {
+        if (this.busy) {
+            throw new IllegalStateException("The parser is parsing a configuration.");
+        }
+        this.busy = true;
+        ConfigurationInstrumentation.Probe probe = ConfigurationInstrumentation.start();
+        Throwable failure = null;
+        try {
+            if (this.schema != null) {
+                ConfigurationSchema.Validator validator = this.schema.newValidator(handler, this);
+                this.parseInput(validator);
+                validator.finish();
+            } else {
+                this.parseInput(handler);
+            }
+        } catch (ConfigurationException | RuntimeException | Error e) {
+            failure = e;
+            throw e;
+        } finally {
+            // the input is released, so a reused parser doesn't retain it
+            this.input = null;
+            this.busy = false;
+            if (probe != null) {
+                probe.finish(this.source, this.length, this.nodes, this.maxDepth, failure);
+            }
+        }
+    }
+
+    /**
+     * It returns the next character of the input or <code>-1</code> at the
+     * end of the input.
+     */
+    private int read() throws IOException, ConfigurationException {
+        if (this.position < this.limit || this.fill()) {
+            return this.chars[this.position++];
+        }
+        return -1;
+    }
+
+    /**
+     * It skips characters of a comment up to the end of the line in the
+     * buffer, the new line character is left for the parser.
+     */
+    private void skipComment() {
+        char[] chars = this.chars;
+        int start = this.position;
+        int end = start;
+        int limit = this.limit;
+        while (end < limit && chars[end] != '\n') {
+            end++;
+        }
+        this.position = end;
+        this.column += end - start;
+        this.length += end - start;
+    }
+
+    /**
+     * It appends characters of a quoted value up to the next quote,
+     * backslash or new line in the buffer at once, the delimiter is left for
+     * the parser.
+     */
+    private void scanValue() {
+        char[] chars = this.chars;
+        int start = this.position;
+        int end = start;
+        int limit = this.limit;
+        while (end < limit) {
+            char c = chars[end];
+            if (c == '"' || c == '\\' || c == '\n') {
+                break;
+            }
+            end++;
+        }
+        this.buffer.append(chars, start, end - start);
+        this.position = end;
+        this.column += end - start;
+        this.length += end - start;
+    }
+
+    /**
+     * It fills the buffer with the next chunk of the input, it returns
+     * <code>false</code> at the end of the input.
+     */
+    private boolean fill() throws IOException, ConfigurationException {
+        int count = -1;
+        if (this.input != null) {
+            count = Math.min(this.chars.length, this.input.length() - this.inputPosition);
+            if (this.input instanceof String) {
+                ((String)this.input).getChars(this.inputPosition, this.inputPosition + count, this.chars, 0);
+            } else if (this.input instanceof StringBuilder) {
+                ((StringBuilder)this.input).getChars(this.inputPosition, this.inputPosition + count, this.chars, 0);
+            } else {
+                for (int i = 0; i < count; i++) {
+                    this.chars[i] = this.input.charAt(this.inputPosition + i);
+                }
+            }
+            this.inputPosition += count;
+        } else if (this.reader != null) {
+            do {
+                count = this.reader.read(this.chars, 0, this.chars.length);
+            } while (count == 0);
+        }
+        this.position = 0;
+        this.limit = Math.max(count, 0);
+        if (count > 0) {
+            this.filled += count;
+            if (this.filledOffset + this.filled > this.limits.getMaxInputLength()) {
+                throw new ConfigurationException(String.format(
+                        "The input exceeds the limit of %d characters on line %d at column %d.",
+                        this.limits.getMaxInputLength(), this.line, this.column
+                ));
+            }
+        }
+        return count > 0;
+    }
+
+    private void parseInput(Handler handler) throws ConfigurationException {
 
         String tmpName = "";
         String tmpValue = "";
-        List<Configuration> tmpChildren = new ArrayList<>();
+        Configuration tmpStored = null;
+        int depth = 0;
 
         try {
-            for (int c = this.reader.read(); c >= 0; c = this.reader.read()) {
+            input:
+            for (int c = this.read(); c >= 0; c = this.read()) {
                 switch (this.state) {
 
                     case COMMENT:
 
                         if (c == '\n') {
                             this.state = State.START;
+                            break;
                         }
 
+                        this.skipComment();
                         break;
 
                     case NAME:
 
                         if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || (c == '_')) {
                             this.buffer.append((char)c);
+                            this.checkLength();
                             break;
                         }
 
@@ -86,7 +434,12 @@ public class ConfigurationParser implements AutoCloseable {
                         }
 
                         if ((c == '}')) {
-                            return new Configuration(name, value, tmpChildren);
+                            if (depth == 0) {
+                                break input;
+                            }
+                            handler.endSection();
+                            depth--;
+                            break;
                         }
 
                         if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c == '_')) {
@@ -106,7 +459,13 @@ public class ConfigurationParser implements AutoCloseable {
                     case VALUE:
 
                         if ((c == '"')) {
-                            tmpValue = this.buffer.toString();
+                            if (this.arena != null && this.buffer.length() > this.arena.getThreshold()) {
+                                tmpStored = this.arena.store(tmpName, this.buffer);
+                                tmpValue = null;
+                            } else {
+                                tmpStored = null;
+                                tmpValue = this.buffer.toString();
+                            }
                             this.buffer.setLength(0);
                             this.state = State.VALUE_END;
                             break;
@@ -118,19 +477,22 @@ public class ConfigurationParser implements AutoCloseable {
                         }
 
                         this.buffer.append((char)c);
+                        this.scanValue();
+                        this.checkLength();
                         break;
 
                     case VALUE_DIRECT:
 
                         if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || (c == '-') || (c == '.') || (c == '_')) {
                             this.buffer.append((char)c);
+                            this.checkLength();
                             break;
                         }
 
                         if (c == ';') {
                             tmpValue = this.buffer.toString();
                             this.buffer.setLength(0);
-                            tmpChildren.add(new Configuration(tmpName, tmpValue, null));
+                            this.addValue(handler, tmpName, tmpValue, depth);
                             this.state = State.START;
                             break;
                         }
@@ -139,11 +501,14 @@ public class ConfigurationParser implements AutoCloseable {
                             tmpValue = this.buffer.toString();
                             this.buffer.setLength(0);
                             this.state = State.START;
-                            tmpChildren.add(this.parse(tmpName, tmpValue));
+                            handler.startSection(tmpName, tmpValue);
+                            depth++;
+                            this.countSection(depth);
                             break;
                         }
 
                         if (c == ' ' || c == '\t' || c == '\r' || c == '\n') {
+                            tmpStored = null;
                             tmpValue = this.buffer.toString();
                             this.buffer.setLength(0);
                             this.state = State.VALUE_END;
@@ -165,12 +530,19 @@ public class ConfigurationParser implements AutoCloseable {
 
                         if (c == '{') {
                             this.state = State.START;
-                            tmpChildren.add(this.parse(tmpName, tmpValue));
+                            handler.startSection(tmpName, tmpStored != null ? tmpStored.getValue() : tmpValue);
+                            depth++;
+                            this.countSection(depth);
                             break;
                         }
 
                         if ((c == ';')) {
-                            tmpChildren.add(new Configuration(tmpName, tmpValue, null));
+                            if (tmpStored != null && !tmpName.equals("include")) {
+                                handler.value(tmpStored);
+                                this.countNode(depth);
+                            } else {
+                                this.addValue(handler, tmpName, tmpStored != null ? tmpStored.getValue() : tmpValue, depth);
+                            }
                             this.state = State.START;
                             break;
                         }
@@ -218,6 +590,7 @@ public class ConfigurationParser implements AutoCloseable {
                                 );
                         }
 
+                        this.checkLength();
                         this.state = State.VALUE;
                         break;
 
@@ -233,8 +606,12 @@ public class ConfigurationParser implements AutoCloseable {
                         }
 
                         if ((c == '{')) {
+                            tmpStored = null;
+                            tmpValue = "";
                             this.state = State.START;
-                            tmpChildren.add(this.parse(tmpName, tmpValue));
+                            handler.startSection(tmpName, tmpValue);
+                            depth++;
+                            this.countSection(depth);
                             break;
                         }
 
@@ -254,6 +631,7 @@ public class ConfigurationParser implements AutoCloseable {
 
                 }
 
+                this.length++;
                 if (c == '\n') {
                     this.column = 1;
                     this.line++;
@@ -269,7 +647,307 @@ public class ConfigurationParser implements AutoCloseable {
             );
         }
 
-        return new Configuration(name, value, tmpChildren);
+        for (; depth > 0; depth--) {
+            handler.endSection();
+        }
+
+    }
+
+    /* package */ int getLine() {
+        return this.line;
+    }
+
+    /* package */ int getColumn() {
+        return this.column;
+    }
+
+    /* package */ List<ConfigurationIncludeCache.Stamp> getDependencies() {
+        return this.dependencies;
+    }
+
+    private void addValue(Handler handler, String name, String value, int depth) throws ConfigurationException {
+        if (name.equals("include")) {
+            for (Configuration fragment : this.include(value, depth)) {
+                this.countChildren(depth, fragment.getChildren().size());
+                handler.fragment(fragment);
+            }
+        } else {
+            handler.value(name, value);
+            this.countNode(depth);
+        }
+    }
+
+    private void countSection(int depth) throws ConfigurationException {
+        this.countNode(depth - 1);
+        if (depth > this.maxDepth) {
+            this.maxDepth = depth;
+        }
+        if (this.depthOffset + depth > this.limits.getMaxDepth()) {
+            throw new ConfigurationException(String.format(
+                    "The configuration exceeds the limit of %d nested sections on line %d at column %d.",
+                    this.limits.getMaxDepth(), this.line, this.column
+            ));
+        }
+        if (depth >= this.children.length) {
+            this.children = Arrays.copyOf(this.children, depth * 2);
+        }
+        this.children[depth] = 0;
+    }
+
+    /**
+     * It counts a value or a section in the section at the specified depth
+     * and checks limits of the number of nodes.
+     */
+    private void countNode(int depth) throws ConfigurationException {
+        if (this.nodesOffset + ++this.nodes > this.limits.getMaxNodes()) {
+            throw new ConfigurationException(String.format(
+                    "The configuration exceeds the limit of %d values and sections on line %d at column %d.",
+                    this.limits.getMaxNodes(), this.line, this.column
+            ));
+        }
+        this.countChildren(depth, 1);
+    }
+
+    private void countChildren(int depth, int count) throws ConfigurationException {
+        this.children[depth] += count;
+        if (this.children[depth] > this.limits.getMaxChildren()) {
+            throw new ConfigurationException(String.format(
+                    "A section exceeds the limit of %d values and sections on line %d at column %d.",
+                    this.limits.getMaxChildren(), this.line, this.column
+            ));
+        }
+    }
+
+    /**
+     * It checks the length of the name or the value in the buffer.
+     */
+    private void checkLength() throws ConfigurationException {
+        if (this.buffer.length() > this.limits.getMaxValueLength()) {
+            throw new ConfigurationException(String.format(
+                    "A value exceeds the limit of %d characters on line %d at column %d.",
+                    this.limits.getMaxValueLength(), this.line, this.column
+            ));
+        }
+    }
+
+    /**
+     * It parses all files matching the specified pattern. The pattern is
+     * resolved relative to the directory of the parsed file and it can contain
+     * a glob pattern in the file name. All files have to be inside the base
+     * directory of includes. Parsed files are shared via the process-wide
+     * cache, so every file is parsed only once until it changes. If the
+     * parser has limits, the files are parsed with the same limits instead,
+     * they are not cached and they count to the limits of this parser.
+     */
+    private List<Configuration> include(String pattern, int depth) throws ConfigurationException {
+
+        if (this.includeBase == null) {
+            throw new ConfigurationException(
+                    String.format("An include is not allowed on line %d at column %d.", this.line, this.column)
+            );
+        }
+
+        Path base = this.path != null ? this.path.toAbsolutePath().normalize().getParent() : this.includeBase;
+        Path target = base.resolve(pattern).normalize();
+        if (!target.startsWith(this.includeBase)) {
+            throw this.outsideOfBase(pattern);
+        }
+        String fileName = target.getFileName() != null ? target.getFileName().toString() : "";
+
+        List<Path> files;
+        if (fileName.indexOf('*') >= 0 || fileName.indexOf('?') >= 0 || fileName.indexOf('[') >= 0 || fileName.indexOf('{') >= 0) {
+            files = ConfigurationLoader.list(target.getParent(), fileName);
+        } else if (Files.isRegularFile(target)) {
+            files = Collections.singletonList(target);
+        } else {
+            throw new ConfigurationException(
+                    String.format(
+                            "An included file \"%s\" doesn't exist on line %d at column %d.",
+                            pattern, this.line, this.column
+                    )
+            );
+        }
+
+        Set<Path> chain = new HashSet<>(this.includeChain);
+        if (this.path != null) {
+            chain.add(ConfigurationIncludeCache.realPath(this.path));
+        }
+
+        Path realBase = ConfigurationIncludeCache.realPath(this.includeBase);
+        List<Path> realFiles = new ArrayList<>(files.size());
+        for (Path file : files) {
+            Path realFile = ConfigurationIncludeCache.realPath(file);
+            if (!realFile.startsWith(realBase)) {
+                throw this.outsideOfBase(pattern);
+            }
+            if (chain.contains(realFile)) {
+                throw new ConfigurationException(
+                        String.format(
+                                "A cyclic include of the file \"%s\" on line %d at column %d.",
+                                file, this.line, this.column
+                        )
+                );
+            }
+            realFiles.add(realFile);
+        }
+
+        if (!this.limits.isUnlimited()) {
+            List<Configuration> fragments = new ArrayList<>(realFiles.size());
+            for (Path file : realFiles) {
+                fragments.add(this.includeLimited(file, chain, depth));
+            }
+            return fragments;
+        }
+
+        List<ConfigurationIncludeCache.Stamp> stamps = Collections.synchronizedList(new ArrayList<>());
+        List<Configuration> fragments = ConfigurationLoader.parseAll(realFiles, null, file -> {
+            ConfigurationIncludeCache.Entry entry = ConfigurationIncludeCache.load(file, chain, this.includeBase);
+            stamps.addAll(entry.getStamps());
+            return entry.getConfiguration();
+        });
+
+        this.dependencies.addAll(stamps);
+        return fragments;
+
+    }
+
+    /**
+     * It parses an included file with the limits of this parser. The input
+     * and the nodes already parsed by this parser and the current depth are
+     * counted to the limits of the included file, so errors report the
+     * configured limits. Errors are prefixed by the path of the file.
+     */
+    private Configuration includeLimited(Path file, Set<Path> chain, int depth) throws ConfigurationException {
+        ConfigurationIncludeCache.Stamp stamp = ConfigurationIncludeCache.Stamp.of(file);
+        try (ConfigurationParser parser = new ConfigurationParser(
+                new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), file, chain, this.includeBase
+        )) {
+            parser.setLimits(this.limits);
+            parser.filledOffset = this.filledOffset + this.filled;
+            parser.depthOffset = this.depthOffset + depth;
+            parser.nodesOffset = this.nodesOffset + this.nodes;
+            Configuration configuration;
+            try {
+                configuration = parser.parse();
+            } catch (ConfigurationException e) {
+                throw new ConfigurationException(
+                        String.format("An error occurred in the file \"%s\": %s", file, e.getMessage()), e
+                );
+            }
+            this.filled += parser.filled;
+            this.nodes += parser.nodes;
+            this.dependencies.add(stamp);
+            this.dependencies.addAll(parser.getDependencies());
+            return configuration;
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+    }
+
+    private ConfigurationException outsideOfBase(String pattern) {
+        return new ConfigurationException(
+                String.format(
+                        "An included file \"%s\" is outside of the directory \"%s\" on line %d at column %d.",
+                        pattern, this.includeBase, this.line, this.column
+                )
+        );
+    }
+
+    private static Path directoryOf(Path path) {
+        return path != null ? path.toAbsolutePath().normalize().getParent() : null;
+    }
+
+    /**
+     * A receiver of values and sections from the parser.
+     */
+    /* package */ interface Handler {
+
+        void value(String name, String value) throws ConfigurationException;
+
+        /**
+         * It receives a value which has been already created, for example
+         * a value stored in an arena.
+         */
+        default void value(Configuration value) throws ConfigurationException {
+            this.value(value.getName(), value.getValue());
+        }
+
+        void startSection(String name, String value) throws ConfigurationException;
+
+        void endSection() throws ConfigurationException;
+
+        /**
+         * It receives top-level values and sections of an included file, by
+         * default they are replayed one by one.
+         */
+        default void fragment(Configuration fragment) throws ConfigurationException {
+            for (Configuration child : fragment.getChildren()) {
+                if (child.getChildren() == null) {
+                    this.value(child.getName(), child.getValue());
+                } else {
+                    this.startSection(child.getName(), child.getValue());
+                    this.fragment(child);
+                    this.endSection();
+                }
+            }
+        }
+
+    }
+
+    /**
+     * A handler which builds the tree of configuration objects.
+     */
+    private static class TreeHandler implements Handler {
+
+        private final List<Section> sections = new ArrayList<>();
+        private Section current = new Section("", "");
+
+        @Override
+        public void value(String name, String value) {
+            this.current.children.add(new Configuration(name, value, null));
+        }
+
+        @Override
+        public void value(Configuration value) {
+            this.current.children.add(value);
+        }
+
+        @Override
+        public void startSection(String name, String value) {
+            this.sections.add(this.current);
+            this.current = new Section(name, value);
+        }
+
+        @Override
+        public void endSection() {
+            Configuration section = new Configuration(this.current.name, this.current.value, this.current.children);
+            this.current = this.sections.remove(this.sections.size() - 1);
+            this.current.children.add(section);
+        }
+
+        @Override
+        public void fragment(Configuration fragment) {
+            // the included configuration is immutable, so it's shared
+            this.current.children.addAll(fragment.getChildren());
+        }
+
+        private Configuration getConfiguration() {
+            return new Configuration(this.current.name, this.current.value, this.current.children);
+        }
+
+    }
+
+    private static class Section {
+
+        private final String name;
+        private final String value;
+        private final List<Configuration> children;
+
+        private Section(String name, String value) {
+            this.name = name;
+            this.value = value;
+            this.children = new ArrayList<>();
+        }
 
     }
 
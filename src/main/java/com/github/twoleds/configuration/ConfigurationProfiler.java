@@ -0,0 +1,190 @@
+package com.github.twoleds.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A sampling profiler of queries. When the profiler is enabled, every n-th
+ * call of {@link Configuration#query(String, Function, Object)} and of all
+ * typed getters is measured at random. The profiler counts sampled calls,
+ * misses (calls which returned the default value) and the cumulative time of
+ * the lookups for every query string. Lookups slower than the threshold are
+ * reported as JDK Flight Recorder events
+ * <code>com.github.twoleds.configuration.SlowQuery</code>.
+ * <p>
+ * The profiler is disabled by default, then it costs a single volatile read
+ * per query. Statistics of at most 10000 distinct queries are kept, all
+ * other queries are counted together under the query <code>*</code>.
+ */
+public class ConfigurationProfiler {
+
+    /* package */ static final int MAX_QUERIES = 10000;
+    /* package */ static final String OTHER_QUERIES = "*";
+
+    private static final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+    private static volatile int interval = 1;
+    private static volatile long threshold = Long.MAX_VALUE;
+
+    private ConfigurationProfiler() {
+    }
+
+    /**
+     * It enables the profiler. Every call is measured with the probability
+     * <code>1 / interval</code>, the interval <code>1</code> measures all calls.
+     * Lookups which take at least the specified threshold are reported as
+     * Flight Recorder events, the <code>null</code> value disables the events.
+     */
+    public static void enable(int interval, Duration threshold) {
+        if (interval < 1) {
+            throw new IllegalArgumentException();
+        }
+        ConfigurationProfiler.interval = interval;
+        ConfigurationProfiler.threshold = threshold != null ? threshold.toNanos() : Long.MAX_VALUE;
+        ConfigurationProfiler.enabled = true;
+    }
+
+    /**
+     * It disables the profiler, the collected statistics are kept until they
+     * are reset.
+     */
+    public static void disable() {
+        ConfigurationProfiler.enabled = false;
+    }
+
+    public static boolean isEnabled() {
+        return ConfigurationProfiler.enabled;
+    }
+
+    /**
+     * It removes all collected statistics.
+     */
+    public static void reset() {
+        ConfigurationProfiler.counters.clear();
+    }
+
+    /**
+     * It returns statistics of queries with the longest cumulative time,
+     * ordered from the slowest one.
+     */
+    public static List<Statistics> getTop(int count) {
+        List<Statistics> statistics = new ArrayList<>(ConfigurationProfiler.counters.size());
+        for (ConcurrentMap.Entry<String, Counters> entry : ConfigurationProfiler.counters.entrySet()) {
+            Counters counters = entry.getValue();
+            statistics.add(new Statistics(entry.getKey(), counters.calls.sum(), counters.misses.sum(), counters.time.sum()));
+        }
+        statistics.sort((a, b) -> Long.compare(b.getTime(), a.getTime()));
+        return statistics.size() > count ? new ArrayList<>(statistics.subList(0, count)) : statistics;
+    }
+
+    /**
+     * It returns a text report of queries with the longest cumulative time,
+     * one query per line.
+     */
+    public static String report(int count) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%12s %12s %14s %10s  %s%n", "calls", "misses", "time [us]", "avg [ns]", "query"));
+        for (Statistics statistics : ConfigurationProfiler.getTop(count)) {
+            report.append(String.format(
+                    "%12d %12d %14d %10d  %s%n",
+                    statistics.getCalls(), statistics.getMisses(), statistics.getTime() / 1000,
+                    statistics.getTime() / Math.max(1, statistics.getCalls()), statistics.getQuery()
+            ));
+        }
+        return report.toString();
+    }
+
+    /* package */ static <T> T profile(Configuration configuration, String query, Function<Configuration, T> convertFunc, T defaultValue) {
+
+        int interval = ConfigurationProfiler.interval;
+        if (interval > 1 && ThreadLocalRandom.current().nextInt(interval) != 0) {
+            T result = configuration.find(query, convertFunc);
+            return result != null ? result : defaultValue;
+        }
+
+        long start = System.nanoTime();
+        T result = configuration.find(query, convertFunc);
+        long time = System.nanoTime() - start;
+
+        Counters counters = ConfigurationProfiler.counters.get(query);
+        if (counters == null) {
+            String key = ConfigurationProfiler.counters.size() < MAX_QUERIES ? query : OTHER_QUERIES;
+            counters = ConfigurationProfiler.counters.computeIfAbsent(key, k -> new Counters());
+        }
+        counters.calls.increment();
+        counters.time.add(time);
+        if (result == null) {
+            counters.misses.increment();
+        }
+        if (time >= ConfigurationProfiler.threshold) {
+            ConfigurationInstrumentation.slowQuery(query, time, result == null);
+        }
+
+        return result != null ? result : defaultValue;
+
+    }
+
+    /**
+     * Counters of a single query, they are striped to avoid contention of
+     * threads calling the same query.
+     */
+    private static class Counters {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LongAdder time = new LongAdder();
+
+    }
+
+    /**
+     * A snapshot of statistics of a single query.
+     */
+    public static final class Statistics {
+
+        private final String query;
+        private final long calls;
+        private final long misses;
+        private final long time;
+
+        private Statistics(String query, long calls, long misses, long time) {
+            this.query = query;
+            this.calls = calls;
+            this.misses = misses;
+            this.time = time;
+        }
+
+        public String getQuery() {
+            return this.query;
+        }
+
+        /**
+         * It returns the number of sampled calls of the query.
+         */
+        public long getCalls() {
+            return this.calls;
+        }
+
+        /**
+         * It returns the number of sampled calls which didn't find any value.
+         */
+        public long getMisses() {
+            return this.misses;
+        }
+
+        /**
+         * It returns the cumulative time of sampled calls in nanoseconds.
+         */
+        public long getTime() {
+            return this.time;
+        }
+
+    }
+
+}
@@ -0,0 +1,448 @@
+package com.github.twoleds.configuration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * A declarative schema of configurations. The schema describes allowed
+ * values and sections of every section, how many times they can occur and
+ * what their values can be. It's compiled into a table of states, one state
+ * for every section of the schema, which is checked by the
+ * {@link ConfigurationParser} while it parses the configuration, see
+ * {@link ConfigurationParser#setSchema(ConfigurationSchema)}. An invalid
+ * configuration is rejected with the line and the column of the invalid
+ * entry, without any second traversal of the tree.
+ * <p>
+ * The schema is created by a builder, which is used in the same way as the
+ * {@link ConfigurationBuilder}:
+ * <pre>
+ * ConfigurationSchema schema = new ConfigurationSchema.Builder()
+ *         .startSection("database").required().pattern("[a-z]+")
+ *             .value("type").required()
+ *             .startSection("node").multiple()
+ *                 .value("host").required()
+ *                 .value("port").type(ConfigurationSchema.Type.INTEGER).range(1, 65535)
+ *             .endSection()
+ *         .endSection()
+ *         .build();
+ * </pre>
+ */
+public class ConfigurationSchema {
+
+    private static final int ANY = -1;
+
+    private final Rule[] rules;
+    private final List<Map<String, Integer>> names;
+    private final int[][] children;
+    private final boolean[] open;
+
+    private ConfigurationSchema(Rule[] rules, List<Map<String, Integer>> names, int[][] children, boolean[] open) {
+        this.rules = rules;
+        this.names = names;
+        this.children = children;
+        this.open = open;
+    }
+
+    /**
+     * It validates an already parsed configuration, for example
+     * a configuration read from the binary form. Errors don't contain any
+     * position, because the configuration doesn't have any.
+     *
+     * @throws ConfigurationException If the configuration is not valid.
+     */
+    public void validate(Configuration configuration) throws ConfigurationException {
+        Validator validator = new Validator(this, null, null);
+        List<Configuration> children = configuration.getChildren();
+        if (children != null) {
+            for (Configuration child : children) {
+                validator.check(child);
+            }
+        }
+        validator.finish();
+    }
+
+    /* package */ Validator newValidator(ConfigurationParser.Handler handler, ConfigurationParser parser) {
+        return new Validator(this, handler, parser);
+    }
+
+    /**
+     * A type of values.
+     */
+    public enum Type {
+
+        /**
+         * Any value.
+         */
+        STRING,
+
+        /**
+         * A long integer.
+         */
+        INTEGER,
+
+        /**
+         * A number with double precision.
+         */
+        DECIMAL,
+
+        /**
+         * A boolean value accepted by {@link Configuration#getBoolean()}.
+         */
+        BOOLEAN
+
+    }
+
+    /**
+     * A rule of a single value or section of the schema.
+     */
+    private static class Rule {
+
+        private final String name;
+        private final boolean section;
+        private final int slot;
+        private int state = ANY;
+        private int minOccurs = 0;
+        private int maxOccurs = 1;
+        private Type type = Type.STRING;
+        private double min = Double.NEGATIVE_INFINITY;
+        private double max = Double.POSITIVE_INFINITY;
+        private Pattern pattern;
+
+        private Rule(String name, boolean section, int slot) {
+            this.name = name;
+            this.section = section;
+            this.slot = slot;
+        }
+
+    }
+
+    /**
+     * A builder of schemas. Modifiers like {@link #required()} change the
+     * last declared or closed value or section.
+     */
+    public static class Builder {
+
+        private final List<Rule> rules = new ArrayList<>();
+        private final List<Map<String, Integer>> names = new ArrayList<>();
+        private final List<List<Integer>> children = new ArrayList<>();
+        private final List<Boolean> open = new ArrayList<>();
+        private final List<Integer> stack = new ArrayList<>();
+        private Rule current;
+
+        public Builder() {
+            this.stack.add(this.addState());
+        }
+
+        /**
+         * It declares a value of the current section.
+         */
+        public Builder value(String name) {
+            this.current = this.addRule(name, false);
+            return this;
+        }
+
+        /**
+         * It declares a section of the current section and it starts
+         * declaring values and sections of the new section.
+         */
+        public Builder startSection(String name) {
+            Rule rule = this.addRule(name, true);
+            rule.state = this.addState();
+            this.stack.add(rule.state);
+            this.current = rule;
+            return this;
+        }
+
+        public Builder endSection() {
+            if (this.stack.size() <= 1) {
+                throw new IllegalStateException("There is no section to end.");
+            }
+            int state = this.stack.remove(this.stack.size() - 1);
+            for (Rule rule : this.rules) {
+                if (rule.section && rule.state == state) {
+                    this.current = rule;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * It allows values and sections which are not declared in the
+         * current section, they are not validated.
+         */
+        public Builder allowOthers() {
+            this.open.set(this.stack.get(this.stack.size() - 1), true);
+            return this;
+        }
+
+        public Builder required() {
+            this.getCurrent().minOccurs = Math.max(1, this.getCurrent().minOccurs);
+            return this;
+        }
+
+        public Builder multiple() {
+            this.getCurrent().maxOccurs = Integer.MAX_VALUE;
+            return this;
+        }
+
+        public Builder occurs(int min, int max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException();
+            }
+            this.getCurrent().minOccurs = min;
+            this.getCurrent().maxOccurs = max;
+            return this;
+        }
+
+        public Builder type(Type type) {
+            this.getCurrent().type = type;
+            return this;
+        }
+
+        /**
+         * It sets a range of numeric values, it applies to integer and
+         * decimal values.
+         */
+        public Builder range(double min, double max) {
+            this.getCurrent().min = min;
+            this.getCurrent().max = max;
+            return this;
+        }
+
+        /**
+         * It sets a regular expression which has to match the whole value.
+         */
+        public Builder pattern(String regex) {
+            this.getCurrent().pattern = Pattern.compile(regex);
+            return this;
+        }
+
+        public ConfigurationSchema build() {
+            if (this.stack.size() != 1) {
+                throw new IllegalStateException("A section has not been ended.");
+            }
+            int[][] children = new int[this.children.size()][];
+            boolean[] open = new boolean[this.open.size()];
+            for (int i = 0; i < children.length; i++) {
+                children[i] = this.children.get(i).stream().mapToInt(Integer::intValue).toArray();
+                open[i] = this.open.get(i);
+            }
+            List<Map<String, Integer>> names = new ArrayList<>();
+            for (Map<String, Integer> state : this.names) {
+                names.add(new HashMap<>(state));
+            }
+            return new ConfigurationSchema(this.rules.toArray(new Rule[0]), names, children, open);
+        }
+
+        private Rule getCurrent() {
+            if (this.current == null) {
+                throw new IllegalStateException("There is no value or section to modify.");
+            }
+            return this.current;
+        }
+
+        private int addState() {
+            this.names.add(new HashMap<>());
+            this.children.add(new ArrayList<>());
+            this.open.add(false);
+            return this.names.size() - 1;
+        }
+
+        private Rule addRule(String name, boolean section) {
+            int state = this.stack.get(this.stack.size() - 1);
+            if (this.names.get(state).containsKey(name)) {
+                throw new IllegalStateException(String.format("An entry \"%s\" is already declared.", name));
+            }
+            Rule rule = new Rule(name, section, this.children.get(state).size());
+            this.names.get(state).put(name, this.rules.size());
+            this.children.get(state).add(this.rules.size());
+            this.rules.add(rule);
+            return rule;
+        }
+
+    }
+
+    /**
+     * A handler which validates values and sections before it passes them to
+     * another handler. It keeps a state and counters of entries for every
+     * open section.
+     */
+    /* package */ static class Validator implements ConfigurationParser.Handler {
+
+        private final ConfigurationSchema schema;
+        private final ConfigurationParser.Handler handler;
+        private final ConfigurationParser parser;
+        private final List<Frame> frames = new ArrayList<>();
+
+        private Validator(ConfigurationSchema schema, ConfigurationParser.Handler handler, ConfigurationParser parser) {
+            this.schema = schema;
+            this.handler = handler;
+            this.parser = parser;
+            this.frames.add(new Frame(0, schema.children[0].length));
+        }
+
+        @Override
+        public void value(String name, String value) throws ConfigurationException {
+            this.checkEntry(name, value, false);
+            this.handler.value(name, value);
+        }
+
+        @Override
+        public void value(Configuration value) throws ConfigurationException {
+            this.checkEntry(value.getName(), value.getValue(), false);
+            this.handler.value(value);
+        }
+
+        @Override
+        public void startSection(String name, String value) throws ConfigurationException {
+            this.checkEntry(name, value, true);
+            this.handler.startSection(name, value);
+        }
+
+        @Override
+        public void endSection() throws ConfigurationException {
+            this.checkEnd();
+            this.handler.endSection();
+        }
+
+        @Override
+        public void fragment(Configuration fragment) throws ConfigurationException {
+            for (Configuration child : fragment.getChildren()) {
+                this.check(child);
+            }
+            this.handler.fragment(fragment);
+        }
+
+        /**
+         * It checks required entries of the root section.
+         */
+        /* package */ void finish() throws ConfigurationException {
+            while (this.frames.size() > 1) {
+                this.checkEnd();
+            }
+            this.checkRequired(this.frames.get(0));
+        }
+
+        private void check(Configuration configuration) throws ConfigurationException {
+            List<Configuration> children = configuration.getChildren();
+            if (children == null) {
+                this.checkEntry(configuration.getName(), configuration.getValue(), false);
+                return;
+            }
+            this.checkEntry(configuration.getName(), configuration.getValue(), true);
+            for (Configuration child : children) {
+                this.check(child);
+            }
+            this.checkEnd();
+        }
+
+        private void checkEntry(String name, String value, boolean section) throws ConfigurationException {
+
+            Frame frame = this.frames.get(this.frames.size() - 1);
+            if (frame.state == ANY) {
+                if (section) {
+                    this.frames.add(new Frame(ANY, 0));
+                }
+                return;
+            }
+
+            Integer id = this.schema.names.get(frame.state).get(name);
+            if (id == null) {
+                if (!this.schema.open[frame.state]) {
+                    throw this.error(String.format("An unexpected %s \"%s\"", section ? "section" : "value", name));
+                }
+                if (section) {
+                    this.frames.add(new Frame(ANY, 0));
+                }
+                return;
+            }
+
+            Rule rule = this.schema.rules[id];
+            if (rule.section != section) {
+                throw this.error(String.format("An entry \"%s\" has to be %s", name, rule.section ? "a section" : "a value"));
+            }
+            if (++frame.counts[rule.slot] > rule.maxOccurs) {
+                throw this.error(String.format("Too many entries \"%s\"", name));
+            }
+            this.checkValue(rule, value);
+
+            if (section) {
+                this.frames.add(new Frame(rule.state, this.schema.children[rule.state].length));
+            }
+
+        }
+
+        private void checkValue(Rule rule, String value) throws ConfigurationException {
+            if (rule.pattern != null && !rule.pattern.matcher(value).matches()) {
+                throw this.error(String.format("An invalid value \"%s\" of the entry \"%s\"", value, rule.name));
+            }
+            double number;
+            try {
+                switch (rule.type) {
+                    case INTEGER:
+                        number = Long.parseLong(value);
+                        break;
+                    case DECIMAL:
+                        number = Double.parseDouble(value);
+                        break;
+                    case BOOLEAN:
+                        new Configuration(rule.name, value, null).getBoolean();
+                        return;
+                    default:
+                        return;
+                }
+            } catch (NumberFormatException e) {
+                throw this.error(String.format("An invalid value \"%s\" of the entry \"%s\"", value, rule.name));
+            }
+            if (number < rule.min || number > rule.max) {
+                throw this.error(String.format("A value \"%s\" of the entry \"%s\" is out of range", value, rule.name));
+            }
+        }
+
+        private void checkEnd() throws ConfigurationException {
+            Frame frame = this.frames.remove(this.frames.size() - 1);
+            this.checkRequired(frame);
+        }
+
+        private void checkRequired(Frame frame) throws ConfigurationException {
+            if (frame.state == ANY) {
+                return;
+            }
+            for (int id : this.schema.children[frame.state]) {
+                Rule rule = this.schema.rules[id];
+                if (frame.counts[rule.slot] < rule.minOccurs) {
+                    throw this.error(String.format("A required entry \"%s\" is missing", rule.name));
+                }
+            }
+        }
+
+        private ConfigurationException error(String message) {
+            if (this.parser == null) {
+                return new ConfigurationException(message + ".");
+            }
+            return new ConfigurationException(String.format(
+                    "%s on line %d at column %d.", message, this.parser.getLine(), this.parser.getColumn()
+            ));
+        }
+
+    }
+
+    /**
+     * A state of an open section, with counters of its entries.
+     */
+    private static class Frame {
+
+        private final int state;
+        private final int[] counts;
+
+        private Frame(int state, int entries) {
+            this.state = state;
+            this.counts = new int[entries];
+        }
+
+    }
+
+}
@@ -0,0 +1,306 @@
+package com.github.twoleds.configuration;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A serializer of Java objects to configurations. It writes records, plain
+ * objects, maps and collections through a {@link ConfigurationBuilder}:
+ * <ul>
+ * <li>an object or a record is written as a section, every non-null property
+ * is written as an entry of the section, properties of records are written in
+ * the order of their components, properties of other objects are read by
+ * public getters and they are written in the order of their names,</li>
+ * <li>a map is written as a section with an entry for every key,</li>
+ * <li>a collection or an array is written as several entries with the same
+ * name, one for every non-null element,</li>
+ * <li>strings, numbers, booleans, characters, enums, paths and other classes
+ * from the <code>java</code> packages are written as values.</li>
+ * </ul>
+ * Getters of every class are looked up only once, they are cached as method
+ * handles together with the kind of the class.
+ */
+public class ConfigurationSerializer {
+
+    private static final ClassValue<Plan> plans = new ClassValue<Plan>() {
+        @Override
+        protected Plan computeValue(Class<?> type) {
+            return ConfigurationSerializer.createPlan(type);
+        }
+    };
+
+    private static final Method isRecord = ConfigurationSerializer.findMethod(Class.class, "isRecord");
+    private static final Method getRecordComponents = ConfigurationSerializer.findMethod(Class.class, "getRecordComponents");
+
+    private ConfigurationSerializer() {
+    }
+
+    /**
+     * It writes properties of the specified object, or entries of the
+     * specified map, as top-level entries to the builder.
+     *
+     * @throws IllegalArgumentException If the object is not an object or
+     *                                  a map, or if it contains a cycle.
+     */
+    public static void write(Object object, ConfigurationBuilder builder) throws IOException {
+        Plan plan = ConfigurationSerializer.plans.get(object.getClass());
+        if (plan.kind != Kind.OBJECT && plan.kind != Kind.MAP) {
+            throw new IllegalArgumentException(String.format("A type \"%s\" cannot be written as a configuration.", object.getClass().getName()));
+        }
+        Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<>());
+        path.add(object);
+        ConfigurationSerializer.writeEntries(object, plan, builder, path);
+    }
+
+    /**
+     * It writes the specified value as an entry with the specified name to
+     * the builder. Nothing is written for the <code>null</code> value.
+     *
+     * @throws IllegalArgumentException If the value contains a cycle.
+     */
+    public static void write(String name, Object value, ConfigurationBuilder builder) throws IOException {
+        ConfigurationSerializer.write(name, value, builder, Collections.newSetFromMap(new IdentityHashMap<>()));
+    }
+
+    private static void write(String name, Object value, ConfigurationBuilder builder, Set<Object> path) throws IOException {
+
+        if (value == null) {
+            return;
+        }
+
+        Plan plan = ConfigurationSerializer.plans.get(value.getClass());
+        switch (plan.kind) {
+
+            case BOOLEAN:
+                builder.writeValue(name, ((Boolean)value).booleanValue());
+                break;
+
+            case CHARACTER:
+                builder.writeValue(name, ((Character)value).charValue());
+                break;
+
+            case INTEGER:
+                builder.writeValue(name, ((Number)value).longValue());
+                break;
+
+            case ENUM:
+                builder.writeValue(name, ((Enum<?>)value).name());
+                break;
+
+            case VALUE:
+                builder.writeValue(name, value.toString());
+                break;
+
+            case ITERABLE:
+                ConfigurationSerializer.enter(value, path);
+                for (Object element : (Iterable<?>)value) {
+                    ConfigurationSerializer.write(name, element, builder, path);
+                }
+                path.remove(value);
+                break;
+
+            case ARRAY:
+                ConfigurationSerializer.enter(value, path);
+                for (int i = 0, l = Array.getLength(value); i < l; i++) {
+                    ConfigurationSerializer.write(name, Array.get(value, i), builder, path);
+                }
+                path.remove(value);
+                break;
+
+            default:
+                ConfigurationSerializer.enter(value, path);
+                builder.startSection(name);
+                ConfigurationSerializer.writeEntries(value, plan, builder, path);
+                builder.closeSection();
+                path.remove(value);
+                break;
+
+        }
+
+    }
+
+    private static void writeEntries(Object object, Plan plan, ConfigurationBuilder builder, Set<Object> path) throws IOException {
+        if (plan.kind == Kind.MAP) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>)object).entrySet()) {
+                ConfigurationSerializer.write(String.valueOf(entry.getKey()), entry.getValue(), builder, path);
+            }
+        } else {
+            for (Property property : plan.properties) {
+                ConfigurationSerializer.write(property.name, property.get(object), builder, path);
+            }
+        }
+    }
+
+    private static void enter(Object value, Set<Object> path) {
+        if (!path.add(value)) {
+            throw new IllegalArgumentException(String.format("A cycle has been found in \"%s\".", value.getClass().getName()));
+        }
+    }
+
+    private static Plan createPlan(Class<?> type) {
+
+        if (type == Boolean.class) {
+            return new Plan(Kind.BOOLEAN, null);
+        }
+        if (type == Character.class) {
+            return new Plan(Kind.CHARACTER, null);
+        }
+        if (type == Byte.class || type == Short.class || type == Integer.class || type == Long.class) {
+            return new Plan(Kind.INTEGER, null);
+        }
+        if (Enum.class.isAssignableFrom(type)) {
+            return new Plan(Kind.ENUM, null);
+        }
+        if (Path.class.isAssignableFrom(type)) {
+            return new Plan(Kind.VALUE, null);
+        }
+        if (Map.class.isAssignableFrom(type)) {
+            return new Plan(Kind.MAP, null);
+        }
+        if (Iterable.class.isAssignableFrom(type)) {
+            return new Plan(Kind.ITERABLE, null);
+        }
+        if (type.isArray()) {
+            return new Plan(Kind.ARRAY, null);
+        }
+        if (CharSequence.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type) || type.getName().startsWith("java.")) {
+            return new Plan(Kind.VALUE, null);
+        }
+
+        List<Property> properties = ConfigurationSerializer.isRecord(type)
+                ? ConfigurationSerializer.findComponents(type)
+                : ConfigurationSerializer.findGetters(type);
+        return new Plan(Kind.OBJECT, properties);
+
+    }
+
+    private static List<Property> findComponents(Class<?> type) {
+        List<Property> properties = new ArrayList<>();
+        try {
+            Object[] components = (Object[])getRecordComponents.invoke(type);
+            for (Object component : components) {
+                Method accessor = (Method)component.getClass().getMethod("getAccessor").invoke(component);
+                MethodHandle getter = ConfigurationSerializer.unreflect(accessor);
+                if (getter != null) {
+                    properties.add(new Property(accessor.getName(), getter));
+                }
+            }
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return properties;
+    }
+
+    private static List<Property> findGetters(Class<?> type) {
+        List<Property> properties = new ArrayList<>();
+        for (Method method : type.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getParameterCount() > 0
+                    || method.getReturnType() == void.class || method.getDeclaringClass() == Object.class) {
+                continue;
+            }
+            String name = method.getName();
+            String property;
+            if (name.startsWith("get") && name.length() > 3) {
+                property = name.substring(3);
+            } else if (name.startsWith("is") && name.length() > 2 && method.getReturnType() == boolean.class) {
+                property = name.substring(2);
+            } else {
+                continue;
+            }
+            MethodHandle getter = ConfigurationSerializer.unreflect(method);
+            if (getter != null) {
+                properties.add(new Property(Character.toLowerCase(property.charAt(0)) + property.substring(1), getter));
+            }
+        }
+        properties.sort((a, b) -> a.name.compareTo(b.name));
+        return properties;
+    }
+
+    /**
+     * It returns a method handle of the getter with the generic type
+     * <code>(Object)Object</code>, or the <code>null</code> value if the getter
+     * is not accessible.
+     */
+    private static MethodHandle unreflect(Method method) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isRecord(Class<?> type) {
+        try {
+            return isRecord != null && (Boolean)isRecord.invoke(type);
+        } catch (ReflectiveOperationException e) {
+            return false;
+        }
+    }
+
+    private static Method findMethod(Class<?> type, String name) {
+        try {
+            return type.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private enum Kind {
+        BOOLEAN, CHARACTER, INTEGER, ENUM, VALUE, MAP, ITERABLE, ARRAY, OBJECT
+    }
+
+    /**
+     * A plan how to write instances of a class.
+     */
+    private static class Plan {
+
+        private final Kind kind;
+        private final List<Property> properties;
+
+        private Plan(Kind kind, List<Property> properties) {
+            this.kind = kind;
+            this.properties = properties;
+        }
+
+    }
+
+    /**
+     * A property of an object with its getter.
+     */
+    private static class Property {
+
+        private final String name;
+        private final MethodHandle getter;
+
+        private Property(String name, MethodHandle getter) {
+            this.name = name;
+            this.getter = getter;
+        }
+
+        private Object get(Object object) {
+            try {
+                return (Object)this.getter.invokeExact(object);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(String.format("A property \"%s\" cannot be read.", this.name), e);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.github.twoleds.configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A loader of a configuration from a URL, which is meant to be polled. The
+ * loader keeps the last parsed configuration together with its
+ * <code>ETag</code> and <code>Last-Modified</code> headers and it sends them
+ * back as <code>If-None-Match</code> and <code>If-Modified-Since</code>
+ * headers. If the server responds <code>304 Not Modified</code>, the cached
+ * configuration is returned without any download or parsing.
+ * <p>
+ * The loader accepts gzip compressed responses, they are decompressed while
+ * they are parsed. URLs of other protocols than HTTP are downloaded and
+ * parsed on every load. The loader can be used by several threads, but loads
+ * are serialized.
+ * <p>
+ * Includes are not allowed in configurations loaded from URLs, there is no
+ * local directory they could be confined to, so an <code>include</code>
+ * directive fails the load.
+ */
+public class ConfigurationUrlLoader {
+
+    private final URL url;
+    private int timeout;
+
+    private Configuration configuration;
+    private String eTag;
+    private String lastModified;
+
+    public ConfigurationUrlLoader(URL url) {
+        this.url = url;
+    }
+
+    public URL getUrl() {
+        return this.url;
+    }
+
+    /**
+     * It sets a timeout of connecting and of reading, the <code>null</code>
+     * value or zero waits without any limit.
+     */
+    public synchronized void setTimeout(Duration timeout) {
+        this.timeout = timeout != null ? (int)Math.min(Integer.MAX_VALUE, timeout.toMillis()) : 0;
+    }
+
+    /**
+     * It returns the <code>ETag</code> header of the last loaded configuration
+     * or the <code>null</code> value.
+     */
+    public synchronized String getETag() {
+        return this.eTag;
+    }
+
+    /**
+     * It returns the <code>Last-Modified</code> header of the last loaded
+     * configuration or the <code>null</code> value.
+     */
+    public synchronized String getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * It loads the configuration from the URL. If the configuration has not
+     * been modified since the last load, it returns the same instance as the
+     * last load, so callers can detect a change by comparing instances.
+     *
+     * @throws ConfigurationException If the configuration cannot be loaded or
+     *                                it's not valid.
+     */
+    public synchronized Configuration load() throws ConfigurationException {
+        try {
+
+            URLConnection connection = this.url.openConnection();
+            connection.setConnectTimeout(this.timeout);
+            connection.setReadTimeout(this.timeout);
+
+            if (connection instanceof HttpURLConnection) {
+                HttpURLConnection http = (HttpURLConnection)connection;
+                http.setRequestProperty("Accept-Encoding", "gzip");
+                if (this.configuration != null && this.eTag != null) {
+                    http.setRequestProperty("If-None-Match", this.eTag);
+                }
+                if (this.configuration != null && this.lastModified != null) {
+                    http.setRequestProperty("If-Modified-Since", this.lastModified);
+                }
+                int status = http.getResponseCode();
+                if (status == HttpURLConnection.HTTP_NOT_MODIFIED && this.configuration != null) {
+                    // the empty body is consumed, so the connection can be kept alive
+                    http.getInputStream().close();
+                    return this.configuration;
+                }
+                if (status < 200 || status >= 300) {
+                    InputStream error = http.getErrorStream();
+                    if (error != null) {
+                        error.close();
+                    }
+                    throw new ConfigurationException(
+                            String.format("A URL \"%s\" returned the status %d.", this.url, status)
+                    );
+                }
+            }
+
+            InputStream input = connection.getInputStream();
+            if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+                try {
+                    input = new GZIPInputStream(input);
+                } catch (IOException e) {
+                    input.close();
+                    throw e;
+                }
+            }
+            try (ConfigurationParser parser = new ConfigurationParser(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+                parser.setSource(this.url.toString());
+                parser.setIncludeBase(null);
+                this.configuration = parser.parse();
+            }
+            this.eTag = connection.getHeaderField("ETag");
+            this.lastModified = connection.getHeaderField("Last-Modified");
+            return this.configuration;
+
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.github.twoleds.configuration;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A writer of configuration trees in the text form. Top-level entries of
+ * large trees are rendered in parallel. Consecutive entries are grouped into
+ * tasks of about {@link #TASK_SIZE} nodes, so values and small sections don't
+ * get a task each, every task is rendered into its own buffer and the
+ * buffers are written to the output in the original order. The tasks are
+ * submitted in batches, so only a few buffers are kept in memory at the same
+ * time.
+ * <p>
+ * With the canonical style of the builder, children of every section are
+ * sorted by their names. The sort is stable, so entries with the same name
+ * keep their order and queries return the same results.
+ */
+/* package */ class ConfigurationWriter {
+
+    /* package */ static final int PARALLEL_THRESHOLD = 4096;
+    /* package */ static final int TASK_SIZE = 1024;
+
+    private ConfigurationWriter() {
+    }
+
+    /* package */ static void write(Configuration configuration, ConfigurationBuilder builder) throws IOException {
+        List<Configuration> children = ConfigurationWriter.getChildren(configuration, builder.getStyle());
+        if (children != null) {
+            for (Configuration child : children) {
+                ConfigurationWriter.writeNode(child, builder);
+            }
+        }
+    }
+
+    /* package */ static void write(Configuration configuration, Writer writer, ConfigurationBuilder.Style style) throws IOException {
+
+        List<Configuration> children = ConfigurationWriter.getChildren(configuration, style);
+        if (children == null || children.size() < 2 || ConfigurationWriter.count(configuration, 0, PARALLEL_THRESHOLD) < PARALLEL_THRESHOLD) {
+            ConfigurationBuilder builder = new ConfigurationBuilder(writer, style);
+            ConfigurationWriter.write(configuration, builder);
+            builder.flush();
+            return;
+        }
+
+        int batchSize = Math.max(2, ForkJoinPool.getCommonPoolParallelism() * 4);
+        int start = 0;
+        while (start < children.size()) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            while (start < children.size() && futures.size() < batchSize) {
+                int end = start;
+                int nodes = 0;
+                while (end < children.size() && nodes < TASK_SIZE) {
+                    nodes = ConfigurationWriter.count(children.get(end++), nodes + 1, TASK_SIZE);
+                }
+                List<Configuration> task = children.subList(start, end);
+                futures.add(CompletableFuture.supplyAsync(() -> ConfigurationWriter.render(task, style), ForkJoinPool.commonPool()));
+                start = end;
+            }
+            for (CompletableFuture<String> future : futures) {
+                try {
+                    writer.write(future.join());
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof UncheckedIOException) {
+                        throw ((UncheckedIOException)e.getCause()).getCause();
+                    }
+                    if (e.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException)e.getCause();
+                    }
+                    throw e;
+                }
+            }
+        }
+        writer.flush();
+
+    }
+
+    private static String render(List<Configuration> configurations, ConfigurationBuilder.Style style) {
+        StringWriter buffer = new StringWriter();
+        try {
+            ConfigurationBuilder builder = new ConfigurationBuilder(buffer, style);
+            for (Configuration configuration : configurations) {
+                ConfigurationWriter.writeNode(configuration, builder);
+            }
+            builder.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toString();
+    }
+
+    private static void writeNode(Configuration configuration, ConfigurationBuilder builder) throws IOException {
+        List<Configuration> children = ConfigurationWriter.getChildren(configuration, builder.getStyle());
+        if (children == null) {
+            builder.writeValue(configuration.getName(), configuration.getValue());
+            return;
+        }
+        if (configuration.getValue().isEmpty()) {
+            builder.startSection(configuration.getName());
+        } else {
+            builder.startSection(configuration.getName(), configuration.getValue());
+        }
+        for (Configuration child : children) {
+            ConfigurationWriter.writeNode(child, builder);
+        }
+        builder.closeSection();
+    }
+
+    private static List<Configuration> getChildren(Configuration configuration, ConfigurationBuilder.Style style) {
+        List<Configuration> children = configuration.getChildren();
+        if (children == null || style != ConfigurationBuilder.Style.CANONICAL) {
+            return children;
+        }
+        List<Configuration> sorted = new ArrayList<>(children);
+        sorted.sort(Comparator.comparing(Configuration::getName));
+        return sorted;
+    }
+
+    /**
+     * It counts nodes of the tree, but it stops at the specified limit.
+     */
+    private static int count(Configuration configuration, int count, int limit) {
+        List<Configuration> children = configuration.getChildren();
+        if (children != null) {
+            for (Configuration child : children) {
+                if (count >= limit) {
+                    break;
+                }
+                count = ConfigurationWriter.count(child, count + 1, limit);
+            }
+        }
+        return count;
+    }
+
+}
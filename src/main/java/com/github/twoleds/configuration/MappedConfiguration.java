@@ -0,0 +1,274 @@
+package com.github.twoleds.configuration;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A read-only configuration backed directly by a binary image, usually by
+ * a memory-mapped file. Instances of this class are lightweight cursors,
+ * which contain only a reference to the image and a number of the node.
+ * Queries and typed getters work directly with the image and the only
+ * allocated objects are returned strings and cursors. A memory-mapped image
+ * is shared by all processes via the page cache of the operating system.
+ */
+public class MappedConfiguration extends Configuration {
+
+    private final ConfigurationImage image;
+    private final int node;
+
+    private MappedConfiguration(ConfigurationImage image, int node) {
+        super(null, null, null);
+        this.image = image;
+        this.node = node;
+    }
+
+    /**
+     * It maps the specified file with a configuration image to memory and
+     * returns the root of the configuration. If the file doesn't contain
+     * a valid configuration image it throws an exception.
+     *
+     * @throws ConfigurationException If the file is not valid.
+     */
+    public static MappedConfiguration map(Path path) throws ConfigurationException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return MappedConfiguration.wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new ConfigurationException("An I/O error occurred.", e);
+        }
+    }
+
+    /**
+     * It returns the root of the configuration from the specified buffer with
+     * a configuration image. The buffer isn't copied and it must not be
+     * modified, its byte order doesn't matter. The tables of the image are
+     * validated once, if the buffer doesn't contain a valid configuration
+     * image it throws an exception.
+     *
+     * @throws ConfigurationException If the buffer is not valid.
+     */
+    public static MappedConfiguration wrap(ByteBuffer buffer) throws ConfigurationException {
+        return new MappedConfiguration(new ConfigurationImage(buffer), 0);
+    }
+
+    /**
+     * It writes the specified configuration to the output stream as
+     * a configuration image, which can be mapped by {@link #map(Path)}.
+     */
+    public static void write(Configuration configuration, OutputStream output) throws IOException {
+        ConfigurationImage.write(configuration, output);
+    }
+
+    @Override
+    public String getName() {
+        return this.image.getString(this.image.getNameId(this.node));
+    }
+
+    @Override
+    public String getValue() {
+        return this.image.getString(this.image.getValueId(this.node));
+    }
+
+    @Override
+    /* package */ <T> T memoize(Function<Configuration, T> converter) {
+        return this.image.getConversions().convert(this, this.node, converter);
+    }
+
+    @Override
+    /* package */ List<Configuration> getChildren() {
+        int count = this.image.getChildCount(this.node);
+        if (count < 0) {
+            return null;
+        }
+        int first = this.image.getFirstChild(this.node);
+        List<Configuration> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            children.add(new MappedConfiguration(this.image, first + i));
+        }
+        return children;
+    }
+
+    @Override
+    /* package */ <T> T find(String query, Function<Configuration, T> convertFunc) {
+        return this.query(this.node, query, 0, convertFunc);
+    }
+
+    private <T> T query(int parent, String query, int start, Function<Configuration, T> convertFunc) {
+
+        int count = this.image.getChildCount(parent);
+        if (count <= 0) {
+            return null;
+        }
+
+        int end = query.indexOf('/', start);
+        boolean last = end < 0;
+        if (last) {
+            end = query.length();
+        }
+
+        int separator = MappedConfiguration.indexOf(query, ':', start, end);
+        int nameId = this.image.findString(query, start, separator < 0 ? end : separator);
+        int condId = separator < 0 ? -1 : this.image.findString(query, separator + 1, end);
+        if (nameId < 0 || (separator >= 0 && condId < 0)) {
+            return null;
+        }
+
+        int first = this.image.getFirstChild(parent);
+        for (int child = first; child < first + count; child++) {
+            if (this.image.getNameId(child) == nameId && (condId < 0 || this.image.getValueId(child) == condId)) {
+                T result = last
+                        ? convertFunc.apply(new MappedConfiguration(this.image, child))
+                        : this.query(child, query, end + 1, convertFunc);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return null;
+
+    }
+
+    @Override
+    public <T> List<T> queryAll(String query, Function<Configuration, T> convertFunc) {
+        return this.queryAll(this.node, query, 0, convertFunc, new ArrayList<>());
+    }
+
+    private <T> List<T> queryAll(int parent, String query, int start, Function<Configuration, T> convertFunc, List<T> result) {
+
+        int count = this.image.getChildCount(parent);
+        if (count <= 0) {
+            return result;
+        }
+
+        int end = query.indexOf('/', start);
+        boolean last = end < 0;
+        if (last) {
+            end = query.length();
+        }
+
+        int separator = MappedConfiguration.indexOf(query, ':', start, end);
+        int nameId = this.image.findString(query, start, separator < 0 ? end : separator);
+        int condId = separator < 0 ? -1 : this.image.findString(query, separator + 1, end);
+        if (nameId < 0 || (separator >= 0 && condId < 0)) {
+            return result;
+        }
+
+        int first = this.image.getFirstChild(parent);
+        for (int child = first; child < first + count; child++) {
+            if (this.image.getNameId(child) == nameId && (condId < 0 || this.image.getValueId(child) == condId)) {
+                if (last) {
+                    result.add(convertFunc.apply(new MappedConfiguration(this.image, child)));
+                } else {
+                    this.queryAll(child, query, end + 1, convertFunc, result);
+                }
+            }
+        }
+        return result;
+
+    }
+
+    @Override
+    public Boolean getBoolean() {
+        int id = this.image.getValueId(this.node);
+        int start = this.image.getStringStart(id);
+        int end = this.image.getStringEnd(id);
+        if (this.equalsIgnoreCase(start, end, "on") || this.equalsIgnoreCase(start, end, "true") || this.equalsIgnoreCase(start, end, "1")) {
+            return true;
+        }
+        if (this.equalsIgnoreCase(start, end, "off") || this.equalsIgnoreCase(start, end, "false") || this.equalsIgnoreCase(start, end, "0")) {
+            return false;
+        }
+        return super.getBoolean();
+    }
+
+    @Override
+    public Byte getByte() {
+        long value = this.parseLong(Byte.MIN_VALUE, Byte.MAX_VALUE);
+        return value != Long.MIN_VALUE ? (byte)value : super.getByte();
+    }
+
+    @Override
+    public Integer getInteger() {
+        long value = this.parseLong(Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return value != Long.MIN_VALUE ? (int)value : super.getInteger();
+    }
+
+    @Override
+    public Long getLong() {
+        long value = this.parseLong(Long.MIN_VALUE + 1, Long.MAX_VALUE);
+        return value != Long.MIN_VALUE ? value : super.getLong();
+    }
+
+    @Override
+    public Short getShort() {
+        long value = this.parseLong(Short.MIN_VALUE, Short.MAX_VALUE);
+        return value != Long.MIN_VALUE ? (short)value : super.getShort();
+    }
+
+    /**
+     * It parses a decimal number directly from the image. If the value isn't
+     * a plain decimal number in the specified range it returns
+     * {@link Long#MIN_VALUE} and the caller falls back to the standard
+     * conversion, which reports the error.
+     */
+    private long parseLong(long min, long max) {
+        int id = this.image.getValueId(this.node);
+        int position = this.image.getStringStart(id);
+        int end = this.image.getStringEnd(id);
+        if (position >= end) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = false;
+        byte first = this.image.getByte(position);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            if (++position >= end || end - position > 18) {
+                return Long.MIN_VALUE;
+            }
+        } else if (end - position > 18) {
+            return Long.MIN_VALUE;
+        }
+        long result = 0;
+        for (; position < end; position++) {
+            int digit = this.image.getByte(position) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            result = result * 10 + digit;
+        }
+        result = negative ? -result : result;
+        return result >= min && result <= max ? result : Long.MIN_VALUE;
+    }
+
+    private boolean equalsIgnoreCase(int start, int end, String value) {
+        if (end - start != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            int c = this.image.getByte(start + i);
+            if (c >= 'A' && c <= 'Z') {
+                c += 'a' - 'A';
+            }
+            if (c != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(String value, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.github.twoleds.configuration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A merged view of several configuration sections with the same path. The
+ * children are merged on the first access and the result is reused by all
+ * following queries, so the layers are walked only once per section.
+ */
+/* package */ class OverlayConfiguration extends Configuration {
+
+    private final Configuration[] layers;
+    private volatile List<Configuration> merged;
+
+    /* package */ OverlayConfiguration(String name, String value, Configuration[] layers) {
+        super(name, value, null);
+        this.layers = layers;
+    }
+
+    @Override
+    /* package */ List<Configuration> getChildren() {
+        List<Configuration> result = this.merged;
+        if (result == null) {
+            synchronized (this) {
+                result = this.merged;
+                if (result == null) {
+                    result = this.merge();
+                    this.merged = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private List<Configuration> merge() {
+
+        Map<String, Slot> slots = new LinkedHashMap<>();
+        boolean section = false;
+
+        for (int layer = 0; layer < this.layers.length; layer++) {
+            List<Configuration> children = this.layers[layer].getChildren();
+            if (children == null) {
+                continue;
+            }
+            section = true;
+            for (Configuration child : children) {
+                if (child.getChildren() == null) {
+                    // leaves from a higher layer replace all leaves with the same name
+                    Slot slot = slots.computeIfAbsent("\0" + child.getName(), k -> new Slot());
+                    if (slot.layer != layer) {
+                        slot.nodes.clear();
+                        slot.layer = layer;
+                    }
+                    slot.nodes.add(child);
+                } else {
+                    // sections with the same name and value are merged together
+                    Slot slot = slots.computeIfAbsent(child.getName() + ':' + child.getValue(), k -> new Slot());
+                    slot.layer = layer;
+                    slot.section = true;
+                    slot.nodes.add(child);
+                }
+            }
+        }
+
+        if (!section) {
+            return null;
+        }
+
+        List<Configuration> result = new ArrayList<>(slots.size());
+        for (Slot slot : slots.values()) {
+            if (slot.section && slot.nodes.size() > 1) {
+                Configuration top = slot.nodes.get(slot.nodes.size() - 1);
+                result.add(new OverlayConfiguration(
+                        top.getName(), top.getValue(), slot.nodes.toArray(new Configuration[slot.nodes.size()])
+                ));
+            } else {
+                result.addAll(slot.nodes);
+            }
+        }
+        return Collections.unmodifiableList(result);
+
+    }
+
+    private static class Slot {
+        private final List<Configuration> nodes = new ArrayList<>(2);
+        private int layer = -1;
+        private boolean section;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class CompactConfigurationTest {
+
+    private static final String testConf = "# Example configuration of an elasticsearch database\n" +
+            "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t\tport 9200;\n" +
+            "\t}\n" +
+            "\tnode node-01 {\n" +
+            "\t\thost 192.168.1.11;\n" +
+            "\t\tport 9200;\n" +
+            "\t}\n" +
+            "\tempty {\n" +
+            "\t}\n" +
+            "}\n";
+
+    @Test
+    public void testParse() throws Exception {
+
+        Configuration conf = CompactConfiguration.parse(new StringReader(CompactConfigurationTest.testConf));
+
+        assertEquals(conf.getString("database"), "testdb");
+        assertEquals(conf.getString("database/type"), "elasticsearch");
+        assertEquals(conf.getString("database/node:node-01/host"), "192.168.1.11");
+        assertEquals(conf.getShort("database/node:node-01/port"), Short.valueOf((short)9200));
+        assertEquals(conf.getInteger("database/node:node-02/port", 1), Integer.valueOf(1));
+        assertNull(conf.query("database/missing"));
+        assertNotNull(conf.query("database/empty"));
+
+        List<String> hosts = conf.queryAll("database/node/host", Configuration::getString);
+        assertEquals(hosts.size(), 2);
+        assertEquals(hosts.get(0), "192.168.1.10");
+        assertEquals(hosts.get(1), "192.168.1.11");
+
+        ConfigurationAssert.assertTreeEquals(conf, Configuration.parse(CompactConfigurationTest.testConf));
+
+    }
+
+    @Test
+    public void testOf() throws Exception {
+
+        Configuration original = Configuration.parse(CompactConfigurationTest.testConf);
+        CompactConfiguration conf = CompactConfiguration.of(original);
+
+        ConfigurationAssert.assertTreeEquals(conf, original);
+        assertSame(CompactConfiguration.of(conf), conf);
+        assertEquals(conf.query("database/node:node-00").getString("host"), "192.168.1.10");
+
+    }
+
+}
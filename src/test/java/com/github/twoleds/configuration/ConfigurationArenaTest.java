@@ -0,0 +1,84 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationArenaTest {
+
+    private static final String testConf = "certificate \"-----BEGIN CERTIFICATE-----\\nMIIBszCCAVmgAwIBAgIUY 䕅\\n-----END CERTIFICATE-----\";\n" +
+            "template \"short\";\n" +
+            "section \"a long value of the section\" {\n" +
+            "\tport 9200;\n" +
+            "}\n";
+
+    @Test
+    public void testArena() throws Exception {
+
+        ConfigurationArena arena = new ConfigurationArena(16, 64);
+        Configuration conf;
+        try (ConfigurationParser parser = new ConfigurationParser(new StringReader(ConfigurationArenaTest.testConf))) {
+            parser.setArena(arena);
+            conf = parser.parse();
+        }
+
+        assertTrue(arena.getSize() > 0);
+        assertEquals(conf.getString("certificate"), "-----BEGIN CERTIFICATE-----\nMIIBszCCAVmgAwIBAgIUY 䕅\n-----END CERTIFICATE-----");
+        assertEquals(conf.getString("template"), "short");
+        assertEquals(conf.getInteger("section:a long value of the section/port"), Integer.valueOf(9200));
+        ConfigurationAssert.assertTreeEquals(conf, Configuration.parse(ConfigurationArenaTest.testConf));
+
+        arena.close();
+        try {
+            conf.getString("certificate");
+            fail();
+        } catch (IllegalStateException e) {
+            // the arena has been closed
+        }
+        assertEquals(conf.getString("template"), "short");
+
+    }
+
+    @Test
+    public void testLargeValue() throws Exception {
+
+        ConfigurationArena arena = new ConfigurationArena(0, 64);
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            large.append('x');
+        }
+
+        Configuration first = arena.store("first", "\u00e9\ud83d\ude00\ud83d");
+        Configuration second = arena.store("second", large);
+        Configuration third = arena.store("third", "short");
+
+        // the large value has its own buffer, the chunk is still filled
+        assertEquals(arena.getSize(), 7 + 100 + 5);
+        assertEquals(arena.getAllocated(), 64 + 100);
+        assertEquals(first.getValue(), "\u00e9\ud83d\ude00?");
+        assertEquals(second.getValue(), large.toString());
+        assertEquals(third.getValue(), "short");
+
+    }
+
+    @Test
+    public void testResetClearsArena() throws Exception {
+
+        ConfigurationArena arena = new ConfigurationArena(16, 64);
+        ConfigurationParser parser = new ConfigurationParser();
+        parser.reset(ConfigurationArenaTest.testConf);
+        parser.setArena(arena);
+        parser.parse();
+        long size = arena.getSize();
+        assertTrue(size > 0);
+
+        Configuration conf = parser.reset(ConfigurationArenaTest.testConf).parse();
+        assertEquals(arena.getSize(), size);
+        arena.close();
+        assertEquals(conf.getString("certificate"), "-----BEGIN CERTIFICATE-----\nMIIBszCCAVmgAwIBAgIUY 䕅\n-----END CERTIFICATE-----");
+
+    }
+
+}
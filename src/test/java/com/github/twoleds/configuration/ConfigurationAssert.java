@@ -0,0 +1,67 @@
+package com.github.twoleds.configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.Assert.fail;
+
+/**
+ * Assertions comparing whole configuration trees, configurations themselves
+ * are compared by identity. Trees are walked by an explicit stack, so deep
+ * trees can be compared too.
+ */
+public class ConfigurationAssert {
+
+    private ConfigurationAssert() {
+    }
+
+    public static void assertTreeEquals(Configuration actual, Configuration expected) {
+        String difference = ConfigurationAssert.findDifference(actual, expected);
+        if (difference != null) {
+            fail(difference);
+        }
+    }
+
+    public static void assertTreeNotEquals(Configuration actual, Configuration expected) {
+        if (ConfigurationAssert.findDifference(actual, expected) == null) {
+            fail("The configurations are equal.");
+        }
+    }
+
+    /**
+     * It returns a description of the first difference of the trees or the
+     * <code>null</code> value if they contain the same entries in the same
+     * order.
+     */
+    private static String findDifference(Configuration actual, Configuration expected) {
+        List<Configuration> stack = new ArrayList<>();
+        stack.add(actual);
+        stack.add(expected);
+        while (!stack.isEmpty()) {
+            Configuration b = stack.remove(stack.size() - 1);
+            Configuration a = stack.remove(stack.size() - 1);
+            if (!Objects.equals(a.getName(), b.getName()) || !Objects.equals(a.getValue(), b.getValue())) {
+                return String.format("expected \"%s %s\" but was \"%s %s\"", b.getName(), b.getValue(), a.getName(), a.getValue());
+            }
+            List<Configuration> aChildren = a.getChildren();
+            List<Configuration> bChildren = b.getChildren();
+            if (aChildren == null || bChildren == null) {
+                if (aChildren != bChildren) {
+                    return String.format("expected \"%s %s\" to be %s", b.getName(), b.getValue(), bChildren == null ? "a value" : "a section");
+                }
+                continue;
+            }
+            if (aChildren.size() != bChildren.size()) {
+                return String.format("expected %d children of \"%s %s\" but was %d",
+                        bChildren.size(), b.getName(), b.getValue(), aChildren.size());
+            }
+            for (int i = 0; i < aChildren.size(); i++) {
+                stack.add(aChildren.get(i));
+                stack.add(bChildren.get(i));
+            }
+        }
+        return null;
+    }
+
+}
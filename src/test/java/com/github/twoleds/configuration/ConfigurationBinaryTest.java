@@ -0,0 +1,141 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationBinaryTest {
+
+    private static final String testConf = "# Example configuration of an elasticsearch database\n" +
+            "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tdescription \"special \\\"characters\\\"\\n\\t䕅\";\n" +
+            "\tempty \"\";\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t\tport 9200;\n" +
+            "\t}\n" +
+            "\tnode node-01 {\n" +
+            "\t}\n" +
+            "}\n";
+
+    @Test
+    public void testRoundTrip() throws Exception {
+
+        Configuration conf = Configuration.parse(ConfigurationBinaryTest.testConf);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        conf.writeBinary(output);
+        Configuration copy = Configuration.readBinary(new ByteArrayInputStream(output.toByteArray()));
+
+        ConfigurationAssert.assertTreeEquals(copy, conf);
+        assertEquals(copy.getString("database/description"), "special \"characters\"\n\t䕅");
+        assertEquals(copy.getInteger("database/node:node-00/port"), Integer.valueOf(9200));
+        assertNotNull(copy.query("database/node:node-01"));
+
+    }
+
+    @Test
+    public void testParseResource() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        byte[] source = "type elasticsearch;\n".getBytes(StandardCharsets.UTF_8);
+        Files.write(directory.resolve("text.conf"), source);
+        Files.write(directory.resolve("precompiled.conf"), source);
+        try (OutputStream output = Files.newOutputStream(directory.resolve("precompiled.conf.bin"))) {
+            Configuration.parse("type precompiled;\n").writeBinary(output, source);
+        }
+        Files.write(directory.resolve("stale.conf"), "type changed;\n".getBytes(StandardCharsets.UTF_8));
+        try (OutputStream output = Files.newOutputStream(directory.resolve("stale.conf.bin"))) {
+            Configuration.parse("type precompiled;\n").writeBinary(output, source);
+        }
+        try (OutputStream output = Files.newOutputStream(directory.resolve("unchecked.conf.bin"))) {
+            Configuration.parse("type precompiled;\n").writeBinary(output);
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toUri().toURL()}, null)) {
+            assertEquals(Configuration.parseResource("text.conf", classLoader).getString("type"), "elasticsearch");
+            assertEquals(Configuration.parseResource("precompiled.conf", classLoader).getString("type"), "precompiled");
+            assertEquals(Configuration.parseResource("stale.conf", classLoader).getString("type"), "changed");
+            assertEquals(Configuration.parseResource("unchecked.conf", classLoader).getString("type"), "precompiled");
+        }
+
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testParseMissingResource() throws Exception {
+        Configuration.parseResource("missing.conf");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testInvalidMagic() throws Exception {
+        Configuration.readBinary(new ByteArrayInputStream("database testdb {}".getBytes("UTF-8")));
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testTruncated() throws Exception {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        Configuration.parse(ConfigurationBinaryTest.testConf).writeBinary(output);
+        byte[] data = output.toByteArray();
+        Configuration.readBinary(new ByteArrayInputStream(data, 0, data.length - 3));
+
+    }
+
+    @Test
+    public void testCorruptedCounts() throws Exception {
+
+        byte[][] inputs = {
+                // a table of 2^31 - 1 strings
+                {'T', 'L', 'C', 'B', 2, 0, (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff, 0x07},
+                // a negative number of strings
+                {'T', 'L', 'C', 'B', 2, 0, (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff, 0x0f},
+                // a section with 2^28 children
+                {'T', 'L', 'C', 'B', 2, 0, 1, 1, 'a', 0, 0, (byte)0x81, (byte)0x80, (byte)0x80, (byte)0x80, 0x01},
+                // an index of a string out of the table
+                {'T', 'L', 'C', 'B', 2, 0, 1, 1, 'a', 5, 0, 0},
+        };
+        for (byte[] input : inputs) {
+            try {
+                Configuration.readBinary(new ByteArrayInputStream(input));
+                fail();
+            } catch (ConfigurationException e) {
+                assertEquals(e.getMessage(), "An invalid format of the binary configuration.");
+            }
+        }
+
+    }
+
+    @Test
+    public void testDeep() throws Exception {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        output.write(new byte[]{'T', 'L', 'C', 'B', 2, 0, 3, 1, 'a', 1, 'b', 0, 2, 2, 2});
+        for (int i = 0; i < 20000; i++) {
+            output.write(new byte[]{0, 2, 2});
+        }
+        output.write(new byte[]{0, 1, 0});
+        Configuration conf = Configuration.readBinary(new ByteArrayInputStream(output.toByteArray()));
+
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            text.append("a {");
+        }
+        text.append("a b;");
+        Configuration parsed = Configuration.parse(text.toString());
+
+        ConfigurationAssert.assertTreeEquals(conf, parsed);
+        ConfigurationAssert.assertTreeNotEquals(conf, Configuration.parse(text.toString().replace("a b;", "a c;")));
+
+    }
+
+}
@@ -1,6 +1,9 @@
 package com.github.twoleds.configuration;
 
+import java.io.ByteArrayOutputStream;
 import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.Assert.*;
 
@@ -262,4 +265,78 @@ public class ConfigurationBuilderTest {
 
     }
 
-}
\ No newline at end of file
+    @org.junit.Test
+    public void testWriteStream() throws Exception {
+
+        StringWriter writer = new StringWriter();
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ByteArrayOutputStream channel = new ByteArrayOutputStream();
+
+        ConfigurationBuilder[] builders = new ConfigurationBuilder[]{
+                new ConfigurationBuilder(writer),
+                new ConfigurationBuilder(stream),
+                new ConfigurationBuilder(Channels.newChannel(channel)),
+        };
+
+        StringBuilder longValue = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            longValue.append("line \u4545 \uD83D\uDE00 \"quoted\"\n");
+        }
+
+        for (ConfigurationBuilder builder : builders) {
+            builder.writeComment("Special characters \u00e1\u4545");
+            builder.startSection("section", Long.MIN_VALUE);
+            for (int i = 0; i < 1000; i++) {
+                builder.writeValue("value", i - 500);
+            }
+            builder.startSection("nested", "a b");
+            builder.writeValue("text", longValue.toString());
+            builder.writeValue("short", (short)-1);
+            builder.closeSection();
+            builder.closeSection();
+            builder.close();
+        }
+
+        assertEquals(new String(stream.toByteArray(), StandardCharsets.UTF_8), writer.toString());
+        assertEquals(new String(channel.toByteArray(), StandardCharsets.UTF_8), writer.toString());
+        assertEquals(Configuration.parse(writer.toString()).getString("section/nested/text"), longValue.toString());
+
+    }
+
+    @org.junit.Test
+    public void testCompactStyle() throws Exception {
+
+        StringWriter writer = new StringWriter();
+        ConfigurationBuilder builder = new ConfigurationBuilder(writer, ConfigurationBuilder.Style.COMPACT);
+
+        // @formatter:off
+        builder
+            .writeComment("Example configuration of an elasticsearch database")
+            .startSection("database", "testdb")
+                .writeValue("type", "elasticsearch")
+                .writeLine()
+                .startSection("node", 0)
+                    .writeValue("host", "192.168.1.10")
+                    .writeValue("port", 9200)
+                    .closeSection()
+                .startSection("empty")
+                    .closeSection()
+                .startSection("quoted", "a b")
+                    .closeSection()
+            .closeSection();
+        // @formatter:on
+
+        builder.close();
+
+        assertEquals(
+                "database testdb{type elasticsearch;node 0{host 192.168.1.10;port 9200;}empty {}quoted \"a b\"{}}",
+                writer.toString()
+        );
+        assertEquals(
+                Configuration.parse(writer.toString()).getString("database/node:0/host"),
+                "192.168.1.10"
+        );
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package com.github.twoleds.configuration;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationCacheTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("test.");
+        ConfigurationCache.setDirectory(this.directory.resolve("cache"));
+    }
+
+    @After
+    public void tearDown() {
+        ConfigurationCache.setDirectory(null);
+    }
+
+    private Path createTestFile(String name, String content) throws Exception {
+        Path file = this.directory.resolve(name);
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private int countEntries() throws Exception {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory.resolve("cache"))) {
+            for (Path entry : stream) {
+                entry.toFile().deleteOnExit();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void testCache() throws Exception {
+
+        Path file = this.createTestFile("test.conf", "database testdb {\n\tport 9200;\n}\n");
+
+        Configuration first = Configuration.parse(file);
+        assertEquals(this.countEntries(), 1);
+
+        Configuration second = Configuration.parse(file);
+        ConfigurationAssert.assertTreeEquals(second, first);
+        assertEquals(second.getInteger("database/port"), Integer.valueOf(9200));
+
+        this.createTestFile("test.conf", "database testdb {\n\tport 9300;\n}\n");
+        assertEquals(Configuration.parse(file.toFile()).getInteger("database/port"), Integer.valueOf(9300));
+        assertEquals(this.countEntries(), 1);
+
+    }
+
+    @Test
+    public void testCacheInclude() throws Exception {
+
+        Path file = this.createTestFile("main.conf", "database testdb {\n\tinclude node.conf;\n}\n");
+        this.createTestFile("node.conf", "port 9200;\n");
+        assertEquals(Configuration.parse(file).getInteger("database/port"), Integer.valueOf(9200));
+
+        this.createTestFile("node.conf", "port 19300;\n");
+        assertEquals(Configuration.parse(file).getInteger("database/port"), Integer.valueOf(19300));
+
+    }
+
+    @Test
+    public void testCacheDamaged() throws Exception {
+
+        Path file = this.createTestFile("test.conf", "port 9200;\n");
+        Configuration.parse(file);
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory.resolve("cache"))) {
+            for (Path entry : stream) {
+                Files.write(entry, new byte[]{1, 2, 3});
+            }
+        }
+
+        assertEquals(Configuration.parse(file).getInteger("port"), Integer.valueOf(9200));
+
+    }
+
+    @Test
+    public void testCacheChecksum() throws Exception {
+
+        Path file = this.createTestFile("test.conf", "port 9200;\n");
+        Configuration.parse(file);
+
+        // the entry is still decodable, only its checksum reveals the change
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory.resolve("cache"))) {
+            for (Path entry : stream) {
+                byte[] data = Files.readAllBytes(entry);
+                String text = new String(data, StandardCharsets.ISO_8859_1);
+                Files.write(entry, text.replace("9200", "9300").getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+
+        assertEquals(Configuration.parse(file).getInteger("port"), Integer.valueOf(9200));
+        assertEquals(this.countEntries(), 1);
+        assertEquals(Configuration.parse(file).getInteger("port"), Integer.valueOf(9200));
+
+    }
+
+}
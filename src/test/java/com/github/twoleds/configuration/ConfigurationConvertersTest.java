@@ -0,0 +1,156 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationConvertersTest {
+
+    private static final String testConf = "timeout 30s;\n" +
+            "interval 1h30m;\n" +
+            "delay 250;\n" +
+            "cache 10MB;\n" +
+            "buffer 64k;\n" +
+            "ratio \"75%\";\n" +
+            "fraction 0.5;\n" +
+            "unit seconds;\n" +
+            "listen \"127.0.0.1:8080\";\n" +
+            "listen6 \"[::1]:8443\";\n" +
+            "port 9200;\n";
+
+    @Test
+    public void testBuiltInConverters() throws Exception {
+
+        Configuration conf = Configuration.parse(ConfigurationConvertersTest.testConf);
+
+        assertEquals(conf.getAs("timeout", Duration.class), Duration.ofSeconds(30));
+        assertEquals(conf.getAs("interval", Duration.class), Duration.ofMinutes(90));
+        assertEquals(conf.getAs("delay", Duration.class), Duration.ofMillis(250));
+        assertEquals(conf.getAs("missing", Duration.class, Duration.ZERO), Duration.ZERO);
+        assertEquals(conf.getSize("cache"), Long.valueOf(10L * 1024 * 1024));
+        assertEquals(conf.getSize("buffer"), Long.valueOf(64L * 1024));
+        assertEquals(conf.getPercentage("ratio"), Double.valueOf(0.75));
+        assertEquals(conf.getPercentage("fraction"), Double.valueOf(0.5));
+        assertEquals(conf.getAs("unit", TimeUnit.class), TimeUnit.SECONDS);
+        assertEquals(conf.getAs("listen", InetSocketAddress.class), new InetSocketAddress("127.0.0.1", 8080));
+        assertEquals(conf.getAs("listen6", InetSocketAddress.class).getPort(), 8443);
+        assertEquals(conf.getAs("port", Integer.class), Integer.valueOf(9200));
+        assertNull(conf.getAs("missing", Integer.class));
+
+    }
+
+    @Test
+    public void testParse() {
+
+        assertEquals(ConfigurationConverters.parseDuration("100ms"), Duration.ofMillis(100));
+        assertEquals(ConfigurationConverters.parseDuration("1d12h"), Duration.ofHours(36));
+        assertEquals(ConfigurationConverters.parseSize("512"), 512L);
+        assertEquals(ConfigurationConverters.parseSize("1GiB"), 1L << 30);
+        assertEquals(ConfigurationConverters.parseSize("2T"), 2L << 40);
+
+        String[] durations = {"", "s", "30x", "30s5", "99999999999999999999s", "999999999d"};
+        for (String duration : durations) {
+            try {
+                ConfigurationConverters.parseDuration(duration);
+                fail(duration);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+        String[] sizes = {"", "MB", "10X", "10MBs", "10Bi", "99999999999999999999", "9999999999T"};
+        for (String size : sizes) {
+            try {
+                ConfigurationConverters.parseSize(size);
+                fail(size);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+
+    }
+
+    @Test
+    public void testMemoize() throws Exception {
+
+        AtomicInteger conversions = new AtomicInteger();
+        ConfigurationConverters.register(Name.class, configuration -> {
+            conversions.incrementAndGet();
+            return new Name(configuration.getValue());
+        }, true);
+
+        Configuration conf = Configuration.parse("name 5;\n");
+        Name first = conf.getAs("name", Name.class);
+        assertEquals(conf.getAs("name", String.class), "5");
+        assertEquals(conf.getAs("name", Integer.class), Integer.valueOf(5));
+        assertSame(conf.getAs("name", Name.class), first);
+        assertEquals(conversions.get(), 1);
+
+        ByteArrayOutputStream image = new ByteArrayOutputStream();
+        MappedConfiguration.write(conf, image);
+        Configuration[] trees = {CompactConfiguration.of(conf), MappedConfiguration.wrap(ByteBuffer.wrap(image.toByteArray()))};
+        for (Configuration tree : trees) {
+            Name name = tree.getAs("name", Name.class);
+            assertNotSame(name, first);
+            assertSame(tree.getAs("name", Name.class), name);
+        }
+        assertEquals(conversions.get(), 3);
+
+    }
+
+    @Test
+    public void testNotCached() throws Exception {
+
+        ConfigurationConverters.register(Builder.class, configuration -> new Builder(configuration.getValue()));
+
+        Configuration conf = Configuration.parse("name value;\n");
+        Builder first = conf.getAs("name", Builder.class);
+        first.value.append(" changed");
+        assertNotSame(conf.getAs("name", Builder.class), first);
+        assertEquals(conf.getAs("name", Builder.class).value.toString(), "value");
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownType() throws Exception {
+        Configuration.parse("name value;\n").getAs("name", Thread.class);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidEnum() throws Exception {
+        Configuration.parse("unit weeks;\n").getAs("unit", TimeUnit.class);
+    }
+
+    /**
+     * An immutable type converted only by this test.
+     */
+    private static final class Name {
+
+        private final String value;
+
+        private Name(String value) {
+            this.value = value;
+        }
+
+    }
+
+    /**
+     * A mutable type converted only by this test.
+     */
+    private static final class Builder {
+
+        private final StringBuilder value;
+
+        private Builder(String value) {
+            this.value = new StringBuilder(value);
+        }
+
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationFootprintTest {
+
+    private static final String testConf = "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t\tport 9200;\n" +
+            "\t}\n" +
+            "}\n" +
+            "cache memcached {\n" +
+            "\tport 11211;\n" +
+            "}\n" +
+            "debug off;\n";
+
+    @Test
+    public void testFootprint() throws Exception {
+
+        ConfigurationFootprint footprint = Configuration.parse(ConfigurationFootprintTest.testConf).footprint();
+
+        assertEquals(footprint.getNodes(), 9);
+        assertEquals(footprint.getLeaves(), 5);
+        assertTrue(footprint.getDistinctStringBytes() < footprint.getStringBytes());
+        assertTrue(footprint.getListSlack() > 0);
+        assertEquals(footprint.getSections().size(), 3);
+        assertEquals(footprint.getSections().get(0).getName(), "database");
+        assertEquals(footprint.getSections().get(1).getValue(), "memcached");
+        assertTrue(footprint.getSections().get(0).getRetainedSize() > footprint.getSections().get(1).getRetainedSize());
+        assertTrue(footprint.getSections().get(1).getRetainedSize() > footprint.getSections().get(2).getRetainedSize());
+
+        long sections = 0;
+        for (ConfigurationFootprint.Section section : footprint.getSections()) {
+            sections += section.getRetainedSize();
+        }
+        assertTrue(footprint.getRetainedSize() > sections);
+
+    }
+
+    @Test
+    public void testFootprintParallel() throws Exception {
+
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            input.append("tenant tenant-").append(i).append(" {\n\tport 9200;\n\tname \"Tenant ").append(i).append("\";\n}\n");
+        }
+        ConfigurationFootprint footprint = Configuration.parse(input.toString()).footprint();
+
+        assertEquals(footprint.getNodes(), 1501);
+        assertEquals(footprint.getLeaves(), 1000);
+        assertEquals(footprint.getSections().size(), 500);
+        assertEquals(footprint.getSections().get(499).getValue(), "tenant-499");
+
+    }
+
+}
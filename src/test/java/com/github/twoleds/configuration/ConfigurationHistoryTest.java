@@ -0,0 +1,128 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationHistoryTest {
+
+    private static final String testConf = "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tnode node-00 {\n\t\thost 192.168.1.10;\n\t\tport 9200;\n\t}\n" +
+            "\tnode node-01 {\n\t\thost 192.168.1.11;\n\t\tport 9200;\n\t}\n" +
+            "}\n" +
+            "cache {\n\tsize 10MB;\n}\n";
+
+    @Test
+    public void testCommitShares() throws Exception {
+
+        ConfigurationHistory history = new ConfigurationHistory(5);
+        ConfigurationHistory.Snapshot first = history.commit(Configuration.parse(ConfigurationHistoryTest.testConf));
+        Configuration changed = Configuration.parse(ConfigurationHistoryTest.testConf.replace("192.168.1.11", "192.168.1.12"));
+        ConfigurationHistory.Snapshot second = history.commit(changed);
+
+        assertEquals(first.getVersion(), 1L);
+        assertEquals(second.getVersion(), 2L);
+        assertFalse(second.getTimestamp().isBefore(first.getTimestamp()));
+        assertSame(history.getCurrent(), second);
+        ConfigurationAssert.assertTreeEquals(second.getConfiguration(), changed);
+
+        Configuration a = first.getConfiguration();
+        Configuration b = second.getConfiguration();
+        assertSame(b.query("cache"), a.query("cache"));
+        assertSame(b.query("database/node:node-00"), a.query("database/node:node-00"));
+        assertSame(b.query("database/type"), a.query("database/type"));
+        assertNotSame(b.query("database/node:node-01"), a.query("database/node:node-01"));
+        assertSame(b.query("database/node:node-01/port"), a.query("database/node:node-01/port"));
+        assertEquals(b.getString("database/node:node-01/host"), "192.168.1.12");
+        assertEquals(a.getString("database/node:node-01/host"), "192.168.1.11");
+
+        ConfigurationHistory.Snapshot third = history.commit(Configuration.parse(ConfigurationHistoryTest.testConf.replace("192.168.1.11", "192.168.1.12")));
+        assertSame(third.getConfiguration(), b);
+
+    }
+
+    @Test
+    public void testRollback() throws Exception {
+
+        ConfigurationHistory history = new ConfigurationHistory(3);
+        try {
+            history.rollback();
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        for (int i = 1; i <= 5; i++) {
+            history.commit(Configuration.parse("version " + i + ";\n"));
+        }
+        assertEquals(history.getSnapshots().size(), 3);
+        assertEquals(history.getSnapshots().get(0).getVersion(), 3L);
+
+        assertEquals(history.rollback().getVersion(), 4L);
+        assertEquals(history.getConfiguration().getInteger("version"), Integer.valueOf(4));
+        assertEquals(history.rollback(5).getVersion(), 5L);
+        assertEquals(history.rollback(3).getVersion(), 3L);
+
+        ConfigurationHistory.Snapshot snapshot = history.commit(Configuration.parse("version 6;\n"));
+        assertEquals(snapshot.getVersion(), 6L);
+        assertEquals(history.getSnapshots().size(), 3);
+        assertEquals(history.getSnapshots().get(0).getVersion(), 3L);
+        assertEquals(history.getSnapshots().get(1).getVersion(), 5L);
+        assertEquals(snapshot.getParentVersion(), 3L);
+        assertEquals(history.rollback().getVersion(), 3L);
+
+        try {
+            history.rollback(4);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+    }
+
+    @Test
+    public void testRollbackAbandoned() throws Exception {
+
+        ConfigurationHistory history = new ConfigurationHistory(3);
+        for (int i = 1; i <= 3; i++) {
+            history.commit(Configuration.parse("version " + i + ";\n"));
+        }
+        history.rollback(1);
+        ConfigurationHistory.Snapshot fourth = history.commit(Configuration.parse("version 4;\n"));
+
+        assertEquals(fourth.getParentVersion(), 1L);
+        assertEquals(history.getSnapshots().get(0).getVersion(), 1L);
+        assertEquals(history.rollback().getVersion(), 1L);
+
+        history.rollback(4);
+        history.commit(Configuration.parse("version 5;\n"));
+        assertEquals(history.getSnapshots().size(), 3);
+        assertEquals(history.getSnapshots().get(0).getVersion(), 1L);
+        assertEquals(history.getSnapshots().get(1).getVersion(), 4L);
+
+    }
+
+    @Test
+    public void testCommitDeep() throws Exception {
+
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            first.append("a {");
+            second.append("a {");
+        }
+        first.append("b 1;");
+        second.append("b 2;");
+
+        ConfigurationHistory history = new ConfigurationHistory(2);
+        Configuration a = history.commit(Configuration.parse(first.toString())).getConfiguration();
+        Configuration b = history.commit(Configuration.parse(second.toString())).getConfiguration();
+        Configuration c = history.commit(Configuration.parse(second.toString())).getConfiguration();
+
+        assertNotSame(b, a);
+        assertSame(c, b);
+
+    }
+
+}
@@ -0,0 +1,127 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationIncludeTest {
+
+    private static Path createTestFile(Path directory, String name, String content) throws Exception {
+        Path file = directory.resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testInclude() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        Path main = ConfigurationIncludeTest.createTestFile(directory, "main.conf",
+                "database testdb {\n\tinclude \"conf.d/*.conf\";\n}\ninclude shared.conf;\n");
+        ConfigurationIncludeTest.createTestFile(directory, "conf.d/20-node.conf", "node node-01 {\n\tport 9200;\n}\n");
+        ConfigurationIncludeTest.createTestFile(directory, "conf.d/10-node.conf", "node node-00 {\n\tport 9200;\n}\n");
+        ConfigurationIncludeTest.createTestFile(directory, "shared.conf", "timeout 30;\n");
+
+        Configuration conf = Configuration.parse(main);
+        List<String> nodes = conf.queryAll("database/node", Configuration::getString);
+        assertEquals(nodes.size(), 2);
+        assertEquals(nodes.get(0), "node-00");
+        assertEquals(nodes.get(1), "node-01");
+        assertEquals(conf.getInteger("database/node:node-01/port"), Integer.valueOf(9200));
+        assertEquals(conf.getInteger("timeout"), Integer.valueOf(30));
+
+    }
+
+    @Test
+    public void testIncludeCache() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        Path first = ConfigurationIncludeTest.createTestFile(directory, "first.conf", "include shared.conf;\n");
+        Path second = ConfigurationIncludeTest.createTestFile(directory, "second.conf", "include shared.conf;\n");
+        Path shared = ConfigurationIncludeTest.createTestFile(directory, "shared.conf", "node node-00 {\n\tport 9200;\n}\n");
+
+        Configuration firstConf = Configuration.parse(first);
+        Configuration secondConf = Configuration.parse(second);
+        assertSame(firstConf.query("node"), secondConf.query("node"));
+
+        Files.write(shared, "node node-00 {\n\tport 9300;\n}\n# changed\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Configuration.parse(first).getInteger("node/port"), Integer.valueOf(9300));
+
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testIncludeCycle() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        Path main = ConfigurationIncludeTest.createTestFile(directory, "main.conf", "include first.conf;\n");
+        ConfigurationIncludeTest.createTestFile(directory, "first.conf", "include second.conf;\n");
+        ConfigurationIncludeTest.createTestFile(directory, "second.conf", "include main.conf;\n");
+
+        Configuration.parse(main);
+
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testIncludeMissing() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        Configuration.parse(ConfigurationIncludeTest.createTestFile(directory, "main.conf", "include missing.conf;\n"));
+
+    }
+
+    @Test
+    public void testIncludeNotAllowed() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        ConfigurationIncludeTest.createTestFile(directory, "shared.conf", "timeout 30;\n");
+        String input = "include \"" + directory.resolve("shared.conf") + "\";\n";
+
+        try {
+            Configuration.parse(input);
+            fail();
+        } catch (ConfigurationException e) {
+            assertTrue(e.getMessage().startsWith("An include is not allowed on line 1"));
+        }
+
+        ConfigurationParser parser = new ConfigurationParser("include shared.conf;\n");
+        parser.setIncludeBase(directory);
+        assertEquals(parser.parse().getInteger("timeout"), Integer.valueOf(30));
+
+    }
+
+    @Test
+    public void testIncludeOutsideOfBase() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        ConfigurationIncludeTest.createTestFile(directory, "secret.conf", "password secret;\n");
+        Path main = ConfigurationIncludeTest.createTestFile(directory, "app/main.conf", "include \"../secret.conf\";\n");
+        Path glob = ConfigurationIncludeTest.createTestFile(directory, "app/glob.conf", "include \"../*.conf\";\n");
+
+        for (Path file : new Path[] {main, glob}) {
+            try {
+                Configuration.parse(file);
+                fail();
+            } catch (ConfigurationException e) {
+                assertTrue(e.getMessage().contains("is outside of the directory"));
+            }
+        }
+
+        ConfigurationParser parser = new ConfigurationParser("include \"" + directory.resolve("secret.conf") + "\";\n");
+        parser.setIncludeBase(directory.resolve("app"));
+        try {
+            parser.parse();
+            fail();
+        } catch (ConfigurationException e) {
+            assertTrue(e.getMessage().contains("is outside of the directory"));
+        }
+
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationInterpolatorTest {
+
+    @Test
+    public void testInterpolate() throws Exception {
+
+        String confStr = "database testdb {\n" +
+                "\tnode node-00 {\n" +
+                "\t\thost 192.168.1.10;\n" +
+                "\t\tport 9200;\n" +
+                "\t}\n" +
+                "}\n" +
+                "url \"http://${endpoint}/${database}\";\n" +
+                "endpoint \"${database/node:node-00/host}:${database/node:node-00/port}\";\n" +
+                "literal \"$${database}\";\n" +
+                "home \"${sys:test.interpolate.home}\";\n";
+
+        System.setProperty("test.interpolate.home", "/home/test");
+        Configuration conf = Configuration.parse(confStr).interpolate();
+
+        assertEquals(conf.getString("url"), "http://192.168.1.10:9200/testdb");
+        assertEquals(conf.getString("endpoint"), "192.168.1.10:9200");
+        assertEquals(conf.getString("literal"), "${database}");
+        assertEquals(conf.getString("home"), "/home/test");
+        assertEquals(conf.getInteger("database/node:node-00/port"), Integer.valueOf(9200));
+
+    }
+
+    @Test
+    public void testInterpolateSharesUnchangedTree() throws Exception {
+
+        Configuration conf = Configuration.parse("database testdb {\n\ttype elasticsearch;\n}\n");
+        assertSame(conf.interpolate(), conf);
+
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testInterpolateCycle() throws Exception {
+        Configuration.parse("a \"${b}\";\nb \"${c}\";\nc \"${a}\";\n").interpolate();
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testInterpolateUnresolved() throws Exception {
+        Configuration.parse("a \"${missing/value}\";\n").interpolate();
+    }
+
+}
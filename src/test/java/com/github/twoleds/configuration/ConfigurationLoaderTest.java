@@ -0,0 +1,72 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationLoaderTest {
+
+    private static Path createTestDirectory(String... files) throws Exception {
+        Path directory = Files.createTempDirectory("test.");
+        directory.toFile().deleteOnExit();
+        for (int i = 0; i < files.length; i += 2) {
+            Path file = directory.resolve(files[i]);
+            Files.write(file, files[i + 1].getBytes(StandardCharsets.UTF_8));
+            file.toFile().deleteOnExit();
+        }
+        return directory;
+    }
+
+    @Test
+    public void testParseDirectory() throws Exception {
+
+        Path directory = ConfigurationLoaderTest.createTestDirectory(
+                "20-node.conf", "node node-01 {\n\thost 192.168.1.11;\n}\n",
+                "10-node.conf", "node node-00 {\n\thost 192.168.1.10;\n}\n",
+                "30-node.conf", "node node-02 {\n\thost 192.168.1.12;\n}\n",
+                "readme.txt", "this is not a configuration"
+        );
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Configuration conf = Configuration.parseDirectory(directory, "*.conf", executor);
+            List<String> nodes = conf.queryAll("node", Configuration::getString);
+            assertEquals(nodes.size(), 3);
+            assertEquals(nodes.get(0), "node-00");
+            assertEquals(nodes.get(1), "node-01");
+            assertEquals(nodes.get(2), "node-02");
+            assertEquals(conf.getString("node:node-02/host"), "192.168.1.12");
+        } finally {
+            executor.shutdown();
+        }
+
+    }
+
+    @Test
+    public void testParseDirectoryErrors() throws Exception {
+
+        Path directory = ConfigurationLoaderTest.createTestDirectory(
+                "10-valid.conf", "port 9200;\n",
+                "20-invalid.conf", "port = 9200;\n",
+                "30-invalid.conf", "host @;\n"
+        );
+
+        try {
+            Configuration.parseDirectory(directory);
+            fail();
+        } catch (ConfigurationException e) {
+            assertEquals(e.getSuppressed().length, 2);
+            assertTrue(e.getSuppressed()[0].getMessage().contains("20-invalid.conf"));
+            assertTrue(e.getSuppressed()[1].getMessage().contains("30-invalid.conf"));
+        }
+
+    }
+
+}
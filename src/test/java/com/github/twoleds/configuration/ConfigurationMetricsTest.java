@@ -0,0 +1,119 @@
+package com.github.twoleds.configuration;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationMetricsTest {
+
+    private static final String testConf = "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t}\n" +
+            "}\n";
+
+    @Test
+    public void testMetrics() throws Exception {
+
+        List<ConfigurationMetrics.Parse> parses = new ArrayList<>();
+        ConfigurationMetrics metrics = parses::add;
+        ConfigurationParser.addMetrics(metrics);
+        try {
+            Configuration.parse(ConfigurationMetricsTest.testConf);
+            try {
+                Configuration.parse("name @;");
+                fail();
+            } catch (ConfigurationException e) {
+                // the configuration is not valid
+            }
+        } finally {
+            ConfigurationParser.removeMetrics(metrics);
+        }
+        Configuration.parse(ConfigurationMetricsTest.testConf);
+
+        assertEquals(parses.size(), 2);
+        assertNull(parses.get(0).getSource());
+        assertEquals(parses.get(0).getLength(), ConfigurationMetricsTest.testConf.length());
+        assertEquals(parses.get(0).getNodes(), 4);
+        assertEquals(parses.get(0).getMaxDepth(), 2);
+        assertTrue(parses.get(0).getDuration() > 0);
+        assertNull(parses.get(0).getFailure());
+        assertTrue(parses.get(1).getFailure() instanceof ConfigurationException);
+
+    }
+
+    @Test
+    public void testFailingMetrics() throws Exception {
+
+        List<ConfigurationMetrics.Parse> parses = new ArrayList<>();
+        ConfigurationMetrics failing = parse -> {
+            throw new IllegalStateException("The listener failed.");
+        };
+        ConfigurationMetrics metrics = parses::add;
+        ConfigurationParser.addMetrics(failing);
+        ConfigurationParser.addMetrics(metrics);
+        try {
+            assertEquals(Configuration.parse(ConfigurationMetricsTest.testConf).getString("database/type"), "elasticsearch");
+            try {
+                Configuration.parse("name @;");
+                fail();
+            } catch (ConfigurationException e) {
+                assertEquals(e.getSuppressed().length, 1);
+                assertEquals(e.getSuppressed()[0].getMessage(), "The listener failed.");
+            }
+        } finally {
+            ConfigurationParser.removeMetrics(failing);
+            ConfigurationParser.removeMetrics(metrics);
+        }
+
+        assertEquals(parses.size(), 2);
+
+    }
+
+    @Test
+    public void testFlightRecorder() throws Exception {
+
+        Assume.assumeTrue(ConfigurationInstrumentation.isFlightRecorderAvailable());
+
+        Path file = Files.createTempFile("configuration", ".conf");
+        Path recordingFile = Files.createTempFile("configuration", ".jfr");
+        try {
+            Files.write(file, ConfigurationMetricsTest.testConf.getBytes("UTF-8"));
+            try (Recording recording = new Recording()) {
+                recording.enable("com.github.twoleds.configuration.Parse").withoutThreshold();
+                recording.start();
+                Configuration.parse(file);
+                recording.stop();
+                recording.dump(recordingFile);
+            }
+
+            List<RecordedEvent> events = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+                if (event.getEventType().getName().equals("com.github.twoleds.configuration.Parse")) {
+                    events.add(event);
+                }
+            }
+
+            assertEquals(events.size(), 1);
+            assertEquals(events.get(0).getString("source"), file.toString());
+            assertEquals(events.get(0).getInt("nodes"), 4);
+            assertEquals(events.get(0).getInt("maxDepth"), 2);
+            assertNull(events.get(0).getString("failure"));
+        } finally {
+            Files.delete(file);
+            Files.delete(recordingFile);
+        }
+
+    }
+
+}
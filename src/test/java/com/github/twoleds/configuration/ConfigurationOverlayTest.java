@@ -0,0 +1,77 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationOverlayTest {
+
+    private static final String defaultsConf = "timeout 30;\n" +
+            "server localhost;\n" +
+            "server 127.0.0.1;\n" +
+            "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t\tport 9200;\n" +
+            "\t}\n" +
+            "}\n";
+
+    private static final String siteConf = "database testdb {\n" +
+            "\tnode node-00 {\n" +
+            "\t\tport 9300;\n" +
+            "\t}\n" +
+            "\tnode node-01 {\n" +
+            "\t\thost 192.168.1.11;\n" +
+            "\t\tport 9300;\n" +
+            "\t}\n" +
+            "}\n";
+
+    private static final String hostConf = "timeout 60;\n" +
+            "server 10.0.0.1;\n";
+
+    @Test
+    public void testOverlay() throws Exception {
+
+        Configuration conf = Configuration.overlay(
+                Configuration.parse(ConfigurationOverlayTest.defaultsConf),
+                Configuration.parse(ConfigurationOverlayTest.siteConf),
+                Configuration.parse(ConfigurationOverlayTest.hostConf)
+        );
+
+        assertEquals(conf.getInteger("timeout"), Integer.valueOf(60));
+        assertEquals(conf.getString("database/type"), "elasticsearch");
+        assertEquals(conf.getString("database/node:node-00/host"), "192.168.1.10");
+        assertEquals(conf.getInteger("database/node:node-00/port"), Integer.valueOf(9300));
+        assertEquals(conf.getString("database/node:node-01/host"), "192.168.1.11");
+        assertEquals(conf.queryAll("database/node").size(), 2);
+        assertNull(conf.query("database/node:node-02"));
+
+    }
+
+    @Test
+    public void testOverlayRepeatedValues() throws Exception {
+
+        Configuration conf = Configuration.overlay(
+                Configuration.parse(ConfigurationOverlayTest.defaultsConf),
+                Configuration.parse(ConfigurationOverlayTest.hostConf)
+        );
+
+        List<String> servers = conf.queryAll("server", Configuration::getString);
+        assertEquals(servers.size(), 1);
+        assertEquals(servers.get(0), "10.0.0.1");
+
+    }
+
+    @Test
+    public void testOverlaySingleLayer() throws Exception {
+
+        Configuration layer = Configuration.parse(ConfigurationOverlayTest.defaultsConf);
+        assertSame(Configuration.overlay(layer), layer);
+        assertNull(Configuration.overlay().query("timeout"));
+
+    }
+
+}
@@ -4,6 +4,9 @@ import org.junit.Test;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
 
@@ -204,5 +207,179 @@ public class ConfigurationParserTest {
         assertEquals(conf.getString("test_string_unsafe"), "this is unsafe string");
 
     }
-    
-}
\ No newline at end of file
+
+    @org.junit.Test
+    public void testParseReset() throws Exception {
+
+        ConfigurationParser parser = new ConfigurationParser();
+        this.testParse(parser.reset(ConfigurationParserTest.testConf).parse());
+        this.testParse(parser.reset(new StringBuilder(ConfigurationParserTest.testConf)).parse());
+        this.testParse(parser.reset(new StringReader(ConfigurationParserTest.testConf)).parse());
+        assertEquals(parser.reset("value 1;").parse().getInteger("value"), Integer.valueOf(1));
+
+        try {
+            parser.reset("value @;").parse();
+            fail();
+        } catch (ConfigurationException e) {
+            // the parser can be reset after an error
+        }
+        assertEquals(parser.reset("value 2;").parse().getInteger("value"), Integer.valueOf(2));
+
+        StringBuilder large = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            large.append("value ").append(i).append(";\n");
+        }
+        assertEquals(parser.reset(large).parse().queryAll("value").size(), 2000);
+
+    }
+
+    @org.junit.Test
+    public void testParseThreadLocal() throws Exception {
+
+        assertSame(ConfigurationParser.threadLocal(), ConfigurationParser.threadLocal());
+
+        AtomicBoolean nested = new AtomicBoolean();
+        ConfigurationMetrics metrics = parse -> {
+            if (nested.compareAndSet(false, true)) {
+                try {
+                    // the listener can parse another configuration on the same thread
+                    assertEquals(Configuration.parse("nested on;").getBoolean("nested"), Boolean.TRUE);
+                } catch (ConfigurationException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+        ConfigurationParser.addMetrics(metrics);
+        try {
+            this.testParse(Configuration.parse(ConfigurationParserTest.testConf));
+        } finally {
+            ConfigurationParser.removeMetrics(metrics);
+        }
+        assertTrue(nested.get());
+
+    }
+
+    @org.junit.Test
+    public void testParseLongValues() throws Exception {
+
+        StringBuilder value = new StringBuilder();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            value.append("line ").append(i).append(" \"quoted\" \\ \u4545\n");
+            input.append("# A comment line number ").append(i).append(" with \"quotes\" and \\ backslashes\n");
+        }
+        input.append("value \"");
+        input.append(value.toString().replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"));
+        input.append("\";\nraw \"first\nsecond\";\n");
+
+        Configuration conf = Configuration.parse(input.toString());
+        assertEquals(conf.getString("value"), value.toString());
+        assertEquals(conf.getString("raw"), "first\nsecond");
+        ConfigurationAssert.assertTreeEquals(new ConfigurationParser(new StringReader(input.toString())).parse(), conf);
+
+        try {
+            Configuration.parse("# A comment\nraw \"first\nsecond\";\nvalue @;");
+            fail();
+        } catch (ConfigurationException e) {
+            assertEquals(e.getMessage(), "An invalid character \"@\" on line 4 at column 7.");
+        }
+
+    }
+
+    @org.junit.Test
+    public void testParseLimits() throws Exception {
+
+        ConfigurationLimits limits = new ConfigurationLimits.Builder()
+                .maxInputLength(20000)
+                .maxDepth(2)
+                .maxValueLength(10)
+                .maxChildren(3)
+                .maxNodes(6)
+                .build();
+
+        String[][] inputs = {
+                {"a 1;\nb {\n\tc {\n\t\td 1;\n\t}\n}\n", null},
+                {"a {\n\tb {\n\t\tc {\n\t\t}\n\t}\n}\n", "The configuration exceeds the limit of 2 nested sections on line 3 at column 5."},
+                {"a \"0123456789 0123456789\";\n", "A value exceeds the limit of 10 characters on line 1 at column 24."},
+                {"value 0123456789a;\n", "A value exceeds the limit of 10 characters on line 1 at column 17."},
+                {"a 1;\nb {\n\tc 1;\n\tc 2;\n\tc 3;\n\tc 4;\n}\n", "A section exceeds the limit of 3 values and sections on line 6 at column 5."},
+                {"a {\n\tb 1;\n\tb 2;\n}\nc {\n\td 1;\n\td 2;\n}\ne 1;\n", "The configuration exceeds the limit of 6 values and sections on line 9 at column 4."},
+        };
+        for (String[] input : inputs) {
+            ConfigurationParser parser = new ConfigurationParser(input[0]);
+            parser.setLimits(limits);
+            try {
+                parser.parse();
+                assertNull(input[1]);
+            } catch (ConfigurationException e) {
+                assertEquals(e.getMessage(), input[1]);
+            }
+        }
+
+        StringBuilder comments = new StringBuilder();
+        while (comments.length() <= 20000) {
+            comments.append("# A long comment\n");
+        }
+        ConfigurationParser parser = new ConfigurationParser(new StringReader(comments.toString()));
+        parser.setLimits(limits);
+        try {
+            parser.parse();
+            fail();
+        } catch (ConfigurationException e) {
+            assertTrue(e.getMessage().startsWith("The input exceeds the limit of 20000 characters"));
+        }
+        assertEquals(parser.reset(comments.toString()).parse().getChildren().size(), 0);
+
+    }
+
+    @org.junit.Test
+    public void testParseLimitsInclude() throws Exception {
+
+        Path directory = Files.createTempDirectory("test.");
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            big.append("node node-").append(i).append(" {\n\tport ").append(9000 + i).append(";\n}\n");
+        }
+        Files.write(directory.resolve("big.conf"), big.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(directory.resolve("deep.conf"), "a {\n\tb {\n\t}\n}\n".getBytes(StandardCharsets.UTF_8));
+        directory.resolve("big.conf").toFile().deleteOnExit();
+        directory.resolve("deep.conf").toFile().deleteOnExit();
+
+        ConfigurationLimits[] limits = {
+                new ConfigurationLimits.Builder().maxNodes(10).build(),
+                new ConfigurationLimits.Builder().maxInputLength(100).build(),
+        };
+        for (ConfigurationLimits limit : limits) {
+            ConfigurationParser parser = new ConfigurationParser("include big.conf;\n");
+            parser.setIncludeBase(directory);
+            parser.setLimits(limit);
+            try {
+                parser.parse();
+                fail();
+            } catch (ConfigurationException e) {
+                assertTrue(e.getMessage().contains("exceeds the limit"));
+            }
+        }
+
+        ConfigurationParser parser = new ConfigurationParser("section {\n\tinclude deep.conf;\n}\n");
+        parser.setIncludeBase(directory);
+        parser.setLimits(new ConfigurationLimits.Builder().maxDepth(2).build());
+        try {
+            parser.parse();
+            fail();
+        } catch (ConfigurationException e) {
+            assertTrue(e.getMessage().startsWith("An error occurred in the file \""));
+            assertTrue(e.getMessage().contains("deep.conf\": The configuration exceeds the limit of 2 nested sections on line 2"));
+        }
+
+        parser.reset("section {\n\tinclude deep.conf;\n}\n");
+        parser.setIncludeBase(directory);
+        parser.setLimits(new ConfigurationLimits.Builder().maxDepth(3).maxNodes(4).build());
+        assertEquals(parser.parse().query("section/a/b").getValue(), "");
+
+        assertTrue(new ConfigurationLimits.Builder().build().isUnlimited());
+        assertFalse(new ConfigurationLimits.Builder().maxNodes(4).build().isUnlimited());
+
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.twoleds.configuration;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationProfilerTest {
+
+    private static final String testConf = "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t\tport 9200;\n" +
+            "\t}\n" +
+            "}\n";
+
+    @Test
+    public void testProfiler() throws Exception {
+
+        Configuration conf = Configuration.parse(ConfigurationProfilerTest.testConf);
+        ConfigurationProfiler.enable(1, null);
+        try {
+            for (int i = 0; i < 10; i++) {
+                assertEquals(conf.getInteger("database/node:node-00/port"), Integer.valueOf(9200));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(conf.getInteger("database/node:node-01/port", 1), Integer.valueOf(1));
+            }
+            conf.getString("database/type");
+        } finally {
+            ConfigurationProfiler.disable();
+        }
+        conf.getString("database/type");
+
+        List<ConfigurationProfiler.Statistics> top = ConfigurationProfiler.getTop(10);
+        assertEquals(top.size(), 3);
+        assertTrue(top.get(0).getTime() >= top.get(1).getTime());
+        assertTrue(top.get(1).getTime() >= top.get(2).getTime());
+        assertEquals(ConfigurationProfiler.getTop(2).size(), 2);
+
+        Map<String, ConfigurationProfiler.Statistics> statistics = new HashMap<>();
+        for (ConfigurationProfiler.Statistics query : top) {
+            statistics.put(query.getQuery(), query);
+        }
+        assertEquals(statistics.get("database/node:node-00/port").getCalls(), 10);
+        assertEquals(statistics.get("database/node:node-00/port").getMisses(), 0);
+        assertEquals(statistics.get("database/node:node-01/port").getCalls(), 3);
+        assertEquals(statistics.get("database/node:node-01/port").getMisses(), 3);
+        assertEquals(statistics.get("database/type").getCalls(), 1);
+        assertTrue(ConfigurationProfiler.report(10).contains("database/type"));
+
+        ConfigurationProfiler.reset();
+        assertTrue(ConfigurationProfiler.getTop(10).isEmpty());
+
+    }
+
+    @Test
+    public void testSlowQueryEvent() throws Exception {
+
+        Assume.assumeTrue(ConfigurationInstrumentation.isFlightRecorderAvailable());
+
+        Configuration conf = Configuration.parse(ConfigurationProfilerTest.testConf);
+        Path recordingFile = Files.createTempFile("configuration", ".jfr");
+        try {
+            try (Recording recording = new Recording()) {
+                recording.enable("com.github.twoleds.configuration.SlowQuery");
+                recording.start();
+                ConfigurationProfiler.enable(1, Duration.ZERO);
+                try {
+                    conf.getString("database/missing");
+                } finally {
+                    ConfigurationProfiler.disable();
+                    ConfigurationProfiler.reset();
+                }
+                recording.stop();
+                recording.dump(recordingFile);
+            }
+
+            RecordedEvent slow = null;
+            for (RecordedEvent event : RecordingFile.readAllEvents(recordingFile)) {
+                if (event.getEventType().getName().equals("com.github.twoleds.configuration.SlowQuery")) {
+                    slow = event;
+                }
+            }
+
+            assertNotNull(slow);
+            assertEquals(slow.getString("query"), "database/missing");
+            assertTrue(slow.getBoolean("miss"));
+        } finally {
+            Files.delete(recordingFile);
+        }
+
+    }
+
+}
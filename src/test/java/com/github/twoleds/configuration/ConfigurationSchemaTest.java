@@ -0,0 +1,136 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationSchemaTest {
+
+    private static final ConfigurationSchema schema = new ConfigurationSchema.Builder()
+            .value("timeout").type(ConfigurationSchema.Type.DECIMAL).range(0, 60)
+            .startSection("database").required().pattern("[a-z]+")
+                .value("type").required().pattern("elasticsearch|mysql")
+                .value("debug").type(ConfigurationSchema.Type.BOOLEAN)
+                .startSection("node").multiple()
+                    .value("host").required()
+                    .value("port").type(ConfigurationSchema.Type.INTEGER).range(1, 65535)
+                .endSection()
+                .startSection("options").allowOthers()
+                .endSection()
+            .endSection()
+            .build();
+
+    private static Configuration parse(String configuration) throws ConfigurationException {
+        ConfigurationParser parser = new ConfigurationParser(configuration);
+        parser.setSchema(ConfigurationSchemaTest.schema);
+        return parser.parse();
+    }
+
+    private static String parseError(String configuration) {
+        try {
+            ConfigurationSchemaTest.parse(configuration);
+        } catch (ConfigurationException e) {
+            return e.getMessage();
+        }
+        fail("The configuration should be rejected.");
+        return null;
+    }
+
+    @Test
+    public void testValid() throws Exception {
+
+        Configuration conf = ConfigurationSchemaTest.parse("timeout 2.5;\n" +
+                "database testdb {\n" +
+                "\ttype elasticsearch;\n" +
+                "\tdebug on;\n" +
+                "\tnode node-00 {\n\t\thost 192.168.1.10;\n\t\tport 9200;\n\t}\n" +
+                "\tnode node-01 {\n\t\thost 192.168.1.11;\n\t}\n" +
+                "\toptions {\n\t\tanything {\n\t\t\tgoes here;\n\t\t}\n\t}\n" +
+                "}\n");
+
+        assertEquals(conf.queryAll("database/node").size(), 2);
+        assertEquals(conf.getString("database/options/anything/goes"), "here");
+        ConfigurationSchemaTest.schema.validate(conf);
+
+    }
+
+    @Test
+    public void testInvalid() throws Exception {
+
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database testdb {\n\ttype mysql;\n\tport 1;\n}\n"),
+                "An unexpected value \"port\" on line 3 at column 8."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database testdb {\n\ttype mysql;\n\ttype mysql;\n}\n"),
+                "Too many entries \"type\" on line 3 at column 12."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database testdb {\n\ttype oracle;\n}\n"),
+                "An invalid value \"oracle\" of the entry \"type\" on line 2 at column 13."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database testdb {\n\ttype mysql;\n\tnode a {\n\t\thost a;\n\t\tport 70000;\n\t}\n}\n"),
+                "A value \"70000\" of the entry \"port\" is out of range on line 5 at column 13."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database testdb {\n\ttype mysql;\n\tnode a {\n\t\tport 80;\n\t}\n}\n"),
+                "A required entry \"host\" is missing on line 5 at column 2."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database testdb {\n\ttype mysql;\n\tdebug maybe;\n}\n"),
+                "An invalid value \"maybe\" of the entry \"debug\" on line 3 at column 13."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database test-db {\n\ttype mysql;\n}\n"),
+                "An invalid value \"test-db\" of the entry \"database\" on line 1 at column 18."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("database {\n\ttype mysql;\n}\n"),
+                "An invalid value \"\" of the entry \"database\" on line 1 at column 10."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("timeout 30;\n"),
+                "A required entry \"database\" is missing on line 2 at column 1."
+        );
+        assertEquals(
+                ConfigurationSchemaTest.parseError("timeout {\n}\ndatabase db {\n\ttype mysql;\n}\n"),
+                "An entry \"timeout\" has to be a value on line 1 at column 9."
+        );
+
+    }
+
+    @Test
+    public void testValidate() throws Exception {
+
+        Configuration conf = Configuration.parse("database testdb {\n\tnode a {\n\t\thost a;\n\t}\n}\n");
+        try {
+            ConfigurationSchemaTest.schema.validate(conf);
+            fail("The configuration should be rejected.");
+        } catch (ConfigurationException e) {
+            assertEquals(e.getMessage(), "A required entry \"type\" is missing.");
+        }
+
+    }
+
+    @Test
+    public void testReset() throws Exception {
+
+        ConfigurationParser parser = new ConfigurationParser("unknown 1;\n");
+        parser.setSchema(ConfigurationSchemaTest.schema);
+        try {
+            parser.parse();
+            fail("The configuration should be rejected.");
+        } catch (ConfigurationException e) {
+            assertEquals(e.getMessage(), "An unexpected value \"unknown\" on line 1 at column 10.");
+        }
+        assertEquals(parser.reset("unknown 1;\n").parse().getInteger("unknown"), Integer.valueOf(1));
+
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnbalanced() throws Exception {
+        new ConfigurationSchema.Builder().startSection("a").build();
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationSerializerTest {
+
+    @Test
+    public void testWrite() throws Exception {
+
+        Database database = new Database();
+        database.type = Type.ELASTICSEARCH;
+        database.timeout = Duration.ofSeconds(30);
+        database.nodes = Arrays.asList(new Node("192.168.1.10", 9200), new Node("192.168.1.11", 9201));
+        database.labels = new LinkedHashMap<>();
+        database.labels.put("env", "production server");
+        database.labels.put("tier", null);
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("database", database);
+        root.put("enabled", true);
+
+        StringWriter writer = new StringWriter();
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(writer)) {
+            ConfigurationSerializer.write(root, builder);
+        }
+
+        assertEquals(
+                writer.toString(),
+                "database {\n" +
+                        "\tlabels {\n" +
+                        "\t\tenv \"production server\";\n" +
+                        "\t}\n" +
+                        "\tnodes {\n" +
+                        "\t\thost 192.168.1.10;\n" +
+                        "\t\tport 9200;\n" +
+                        "\t\tsecure off;\n" +
+                        "\t}\n" +
+                        "\tnodes {\n" +
+                        "\t\thost 192.168.1.11;\n" +
+                        "\t\tport 9201;\n" +
+                        "\t\tsecure off;\n" +
+                        "\t}\n" +
+                        "\ttimeout PT30S;\n" +
+                        "\ttype ELASTICSEARCH;\n" +
+                        "}\n" +
+                        "enabled on;\n"
+        );
+
+        Configuration conf = Configuration.parse(writer.toString());
+        assertEquals(conf.queryAll("database/nodes/port", Configuration::getInteger), Arrays.asList(9200, 9201));
+        assertEquals(conf.getBoolean("enabled"), Boolean.TRUE);
+
+    }
+
+    @Test
+    public void testWriteCycle() throws Exception {
+
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(new StringWriter())) {
+            ConfigurationSerializer.write("list", list, builder);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // the list contains itself
+        }
+
+    }
+
+    public enum Type {
+        ELASTICSEARCH
+    }
+
+    public static class Database {
+
+        private Type type;
+        private Duration timeout;
+        private List<Node> nodes;
+        private Map<String, String> labels;
+
+        public Type getType() {
+            return this.type;
+        }
+
+        public Duration getTimeout() {
+            return this.timeout;
+        }
+
+        public List<Node> getNodes() {
+            return this.nodes;
+        }
+
+        public Map<String, String> getLabels() {
+            return this.labels;
+        }
+
+        public String getDescription() {
+            return null;
+        }
+
+    }
+
+    public static class Node {
+
+        private final String host;
+        private final int port;
+
+        public Node(String host, int port) {
+            this.host = host;
+            this.port = port;
+        }
+
+        public String getHost() {
+            return this.host;
+        }
+
+        public int getPort() {
+            return this.port;
+        }
+
+        public boolean isSecure() {
+            return false;
+        }
+
+    }
+
+}
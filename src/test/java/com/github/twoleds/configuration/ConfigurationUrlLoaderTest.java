@@ -0,0 +1,178 @@
+package com.github.twoleds.configuration;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationUrlLoaderTest {
+
+    private final List<Integer> responses = new ArrayList<>();
+    private HttpServer server;
+    private volatile String content = "database testdb {\n\tport 9200;\n}\n";
+    private volatile String eTag = "\"v1\"";
+    private volatile String lastModified = "Mon, 19 Oct 2026 10:00:00 GMT";
+    private volatile boolean gzip;
+
+    @Before
+    public void setUp() throws Exception {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/app.conf", this::handle);
+        this.server.createContext("/missing.conf", exchange -> {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() {
+        this.server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String eTag = this.eTag;
+        String lastModified = this.lastModified;
+        if (eTag != null) {
+            exchange.getResponseHeaders().set("ETag", eTag);
+        }
+        exchange.getResponseHeaders().set("Last-Modified", lastModified);
+        boolean notModified = eTag != null
+                ? eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))
+                : lastModified.equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"));
+        if (notModified) {
+            this.record(304);
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = this.content.getBytes(StandardCharsets.UTF_8);
+        if (this.gzip && "gzip".equals(exchange.getRequestHeaders().getFirst("Accept-Encoding"))) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream output = new GZIPOutputStream(compressed)) {
+                output.write(body);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+        }
+        this.record(200);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    private synchronized void record(int status) {
+        this.responses.add(status);
+    }
+
+    private URL url(String path) throws Exception {
+        return new URL("http", "127.0.0.1", this.server.getAddress().getPort(), path);
+    }
+
+    @Test
+    public void testLoadNotModified() throws Exception {
+
+        ConfigurationUrlLoader loader = new ConfigurationUrlLoader(this.url("/app.conf"));
+        Configuration first = loader.load();
+        Configuration second = loader.load();
+
+        assertEquals(first.getInteger("database/port"), Integer.valueOf(9200));
+        assertSame(second, first);
+        assertEquals(loader.getETag(), "\"v1\"");
+        assertEquals(loader.getLastModified(), "Mon, 19 Oct 2026 10:00:00 GMT");
+
+        this.content = "database testdb {\n\tport 9300;\n}\n";
+        this.eTag = "\"v2\"";
+        Configuration third = loader.load();
+        assertNotSame(third, first);
+        assertEquals(third.getInteger("database/port"), Integer.valueOf(9300));
+        assertSame(loader.load(), third);
+
+        synchronized (this) {
+            assertEquals(this.responses.toString(), "[200, 304, 200, 304]");
+        }
+
+    }
+
+    @Test
+    public void testLoadNotModifiedSince() throws Exception {
+
+        this.eTag = null;
+        ConfigurationUrlLoader loader = new ConfigurationUrlLoader(this.url("/app.conf"));
+        Configuration first = loader.load();
+        assertSame(loader.load(), first);
+        assertNull(loader.getETag());
+
+        this.content = "database testdb {\n\tport 9300;\n}\n";
+        this.lastModified = "Mon, 19 Oct 2026 11:00:00 GMT";
+        Configuration second = loader.load();
+        assertEquals(second.getInteger("database/port"), Integer.valueOf(9300));
+        assertEquals(loader.getLastModified(), "Mon, 19 Oct 2026 11:00:00 GMT");
+        assertSame(loader.load(), second);
+
+        synchronized (this) {
+            assertEquals(this.responses.toString(), "[200, 304, 200, 304]");
+        }
+
+    }
+
+    @Test
+    public void testLoadInclude() throws Exception {
+
+        this.content = "include \"/etc/passwd\";\n";
+        ConfigurationUrlLoader loader = new ConfigurationUrlLoader(this.url("/app.conf"));
+        try {
+            loader.load();
+            fail();
+        } catch (ConfigurationException e) {
+            assertTrue(e.getMessage().startsWith("An include is not allowed on line 1"));
+        }
+
+    }
+
+    @Test
+    public void testLoadGzip() throws Exception {
+
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append("node node-").append(i).append(" {\n\tport ").append(9000 + i).append(";\n}\n");
+        }
+        this.content = content.toString();
+        this.gzip = true;
+
+        ConfigurationUrlLoader loader = new ConfigurationUrlLoader(this.url("/app.conf"));
+        Configuration conf = loader.load();
+        ConfigurationAssert.assertTreeEquals(conf, Configuration.parse(content.toString()));
+        assertEquals(conf.getInteger("node:node-999/port"), Integer.valueOf(9999));
+
+    }
+
+    @Test
+    public void testLoadError() throws Exception {
+
+        ConfigurationUrlLoader loader = new ConfigurationUrlLoader(this.url("/missing.conf"));
+        try {
+            loader.load();
+            fail();
+        } catch (ConfigurationException e) {
+            assertTrue(e.getMessage().endsWith("returned the status 404."));
+        }
+
+    }
+
+}
@@ -0,0 +1,130 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class ConfigurationWriterTest {
+
+    private static final String testConf = "# Example configuration of an elasticsearch database\n" +
+            "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tdescription \"A \\\"test\\\" database\\nwith\\ttabs 䕅\";\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t\tport 9200;\n" +
+            "\t}\n" +
+            "\tempty {\n" +
+            "\t}\n" +
+            "\tblank \"\";\n" +
+            "}\n";
+
+    @Test
+    public void testWriteTo() throws Exception {
+
+        Configuration conf = Configuration.parse(ConfigurationWriterTest.testConf);
+        StringWriter writer = new StringWriter();
+        conf.writeTo(writer);
+
+        assertEquals(
+                writer.toString(),
+                "database testdb {\n" +
+                        "\ttype elasticsearch;\n" +
+                        "\tdescription \"A \\\"test\\\" database\\nwith\\ttabs 䕅\";\n" +
+                        "\tnode node-00 {\n" +
+                        "\t\thost 192.168.1.10;\n" +
+                        "\t\tport 9200;\n" +
+                        "\t}\n" +
+                        "\tempty {\n" +
+                        "\t}\n" +
+                        "\tblank \"\";\n" +
+                        "}\n"
+        );
+        ConfigurationAssert.assertTreeEquals(Configuration.parse(writer.toString()), conf);
+        assertEquals(conf.getString("database/empty"), "");
+
+    }
+
+    @Test
+    public void testWriteToBuilder() throws Exception {
+
+        Configuration conf = Configuration.parse(ConfigurationWriterTest.testConf);
+        StringWriter writer = new StringWriter();
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(writer)) {
+            builder.writeComment("Generated");
+            conf.writeTo(builder);
+        }
+
+        assertTrue(writer.toString().startsWith("# Generated\ndatabase testdb {\n"));
+        ConfigurationAssert.assertTreeEquals(Configuration.parse(writer.toString()), conf);
+
+    }
+
+    @Test
+    public void testWriteToParallel() throws Exception {
+
+        StringWriter source = new StringWriter();
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(source)) {
+            for (int i = 0; i < 200; i++) {
+                builder.startSection("node", "node-" + i);
+                for (int j = 0; j < 50; j++) {
+                    builder.writeValue("value", "value " + i + " " + j);
+                }
+                builder.startSection("nested");
+                builder.writeValue("index", i);
+                builder.closeSection();
+                builder.closeSection();
+                builder.writeValue("separator", i);
+            }
+        }
+
+        Configuration conf = Configuration.parse(source.toString());
+        StringWriter writer = new StringWriter();
+        conf.writeTo(writer);
+
+        assertEquals(writer.toString(), source.toString());
+        ConfigurationAssert.assertTreeEquals(Configuration.parse(writer.toString()), conf);
+
+    }
+
+    @Test
+    public void testWriteToParallelValues() throws Exception {
+
+        StringWriter source = new StringWriter();
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(source)) {
+            for (int i = 0; i < ConfigurationWriter.PARALLEL_THRESHOLD * 2; i++) {
+                builder.writeValue("value", i);
+            }
+        }
+
+        Configuration conf = Configuration.parse(source.toString());
+        StringWriter writer = new StringWriter();
+        conf.writeTo(writer);
+
+        assertEquals(writer.toString(), source.toString());
+
+    }
+
+    @Test
+    public void testWriteToCanonical() throws Exception {
+
+        Configuration first = Configuration.parse("b 1;\na 1;\nsection \"\" {\n\tz \"two words\";\n\ty on;\n}\na 2;\n");
+        Configuration second = Configuration.parse("# Comment\nsection {\n\ty on;\n\tz \"two words\";\n}\na 1;\na 2;\nb 1;\n");
+
+        StringWriter firstWriter = new StringWriter();
+        first.writeTo(firstWriter, ConfigurationBuilder.Style.CANONICAL);
+        StringWriter secondWriter = new StringWriter();
+        try (ConfigurationBuilder builder = new ConfigurationBuilder(secondWriter, ConfigurationBuilder.Style.CANONICAL)) {
+            second.writeTo(builder);
+        }
+
+        assertEquals(firstWriter.toString(), "a 1;a 2;b 1;section {y on;z \"two words\";}");
+        assertEquals(secondWriter.toString(), firstWriter.toString());
+        assertEquals(Configuration.parse(firstWriter.toString()).getString("section/z"), "two words");
+        assertEquals(Configuration.parse(firstWriter.toString()).queryAll("a", Configuration::getInteger).get(1), Integer.valueOf(2));
+
+    }
+
+}
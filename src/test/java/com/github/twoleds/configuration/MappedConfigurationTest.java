@@ -0,0 +1,132 @@
+package com.github.twoleds.configuration;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MappedConfigurationTest {
+
+    private static final String testConf = "database testdb {\n" +
+            "\ttype elasticsearch;\n" +
+            "\tenabled On;\n" +
+            "\tdescription \"special \\\"characters\\\" 䕅 😀\";\n" +
+            "\tnode node-00 {\n" +
+            "\t\thost 192.168.1.10;\n" +
+            "\t\tport 9200;\n" +
+            "\t\tweight -12;\n" +
+            "\t}\n" +
+            "\tnode node-01 {\n" +
+            "\t\thost 192.168.1.11;\n" +
+            "\t\tport 9201;\n" +
+            "\t}\n" +
+            "}\n";
+
+    private static MappedConfiguration createTestImage() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MappedConfiguration.write(Configuration.parse(MappedConfigurationTest.testConf), output);
+        return MappedConfiguration.wrap(ByteBuffer.wrap(output.toByteArray()));
+    }
+
+    @Test
+    public void testQuery() throws Exception {
+
+        MappedConfiguration conf = MappedConfigurationTest.createTestImage();
+
+        assertEquals(conf.getString("database"), "testdb");
+        assertEquals(conf.getString("database/type"), "elasticsearch");
+        assertEquals(conf.getBoolean("database/enabled"), Boolean.TRUE);
+        assertEquals(conf.getString("database/description"), "special \"characters\" 䕅 😀");
+        assertEquals(conf.getString("database/node:node-01/host"), "192.168.1.11");
+        assertEquals(conf.getInteger("database/node:node-01/port"), Integer.valueOf(9201));
+        assertEquals(conf.getShort("database/node:node-00/weight"), Short.valueOf((short)-12));
+        assertEquals(conf.getLong("database/node/port"), Long.valueOf(9200));
+        assertNull(conf.query("database/node:node-02"));
+        assertNull(conf.query("database/missing"));
+        assertEquals(conf.getInteger("database/node:node-02/port", 1), Integer.valueOf(1));
+
+        List<Integer> ports = conf.queryAll("database/node/port", Configuration::getInteger);
+        assertEquals(ports.size(), 2);
+        assertEquals(ports.get(0), Integer.valueOf(9200));
+        assertEquals(ports.get(1), Integer.valueOf(9201));
+
+        ConfigurationAssert.assertTreeEquals(conf, Configuration.parse(MappedConfigurationTest.testConf));
+
+    }
+
+    @Test
+    public void testMap() throws Exception {
+
+        Path file = Files.createTempFile("test.", ".img");
+        file.toFile().deleteOnExit();
+        try (OutputStream output = Files.newOutputStream(file)) {
+            MappedConfiguration.write(Configuration.parse(MappedConfigurationTest.testConf), output);
+        }
+
+        MappedConfiguration conf = MappedConfiguration.map(file);
+        assertEquals(conf.getString("database/node:node-00/host"), "192.168.1.10");
+
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidNumber() throws Exception {
+        MappedConfigurationTest.createTestImage().getInteger("database/type");
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void testInvalidImage() throws Exception {
+        MappedConfiguration.wrap(ByteBuffer.wrap(new byte[32]));
+    }
+
+    @Test
+    public void testWrapLittleEndian() throws Exception {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MappedConfiguration.write(Configuration.parse(MappedConfigurationTest.testConf), output);
+        ByteBuffer buffer = ByteBuffer.wrap(output.toByteArray()).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals(MappedConfiguration.wrap(buffer).getInteger("database/node:node-01/port"), Integer.valueOf(9201));
+        assertEquals(buffer.order(), ByteOrder.LITTLE_ENDIAN);
+
+    }
+
+    @Test
+    public void testCorruptedImage() throws Exception {
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        MappedConfiguration.write(Configuration.parse(MappedConfigurationTest.testConf), output);
+        byte[] image = output.toByteArray();
+        int stringCount = ByteBuffer.wrap(image).getInt(8);
+        int nodeTable = ByteBuffer.wrap(image).getInt(16);
+
+        List<ByteBuffer> buffers = new ArrayList<>();
+        // a truncated node table
+        buffers.add(ByteBuffer.wrap(image, 0, image.length - 4).slice());
+        // an offset of a string out of the string data
+        buffers.add(ByteBuffer.wrap(image.clone()).putInt(20 + 4 * stringCount, Integer.MAX_VALUE));
+        // a name id out of the string table
+        buffers.add(ByteBuffer.wrap(image.clone()).putInt(nodeTable, stringCount));
+        // children out of the node table
+        buffers.add(ByteBuffer.wrap(image.clone()).putInt(nodeTable + 12, 1000));
+        // a cycle of the root
+        buffers.add(ByteBuffer.wrap(image.clone()).putInt(nodeTable + 8, 0));
+        for (ByteBuffer buffer : buffers) {
+            try {
+                MappedConfiguration.wrap(buffer);
+                fail();
+            } catch (ConfigurationException e) {
+                assertEquals(e.getMessage(), "An invalid format of the configuration image.");
+            }
+        }
+
+    }
+
+}